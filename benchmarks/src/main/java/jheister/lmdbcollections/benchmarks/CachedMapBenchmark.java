@@ -0,0 +1,92 @@
+package jheister.lmdbcollections.benchmarks;
+
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.collections.CachedLmdbMap;
+import jheister.lmdbcollections.collections.LmdbMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+
+//reads of a hot subset of keys, through the map directly and through a cache sized for the hot set
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens=java.base/java.nio=ALL-UNNAMED", "--add-opens=java.base/sun.nio.ch=ALL-UNNAMED"})
+public class CachedMapBenchmark extends EnvironmentState {
+    private static final int OPS = 100;
+    private static final int SIZE = 100000;
+
+    @Param({"100", "10000"})
+    public int hotKeys;
+
+    @Param({"1024"})
+    public int valueSize;
+
+    private LmdbMap<String, String> map;
+    private CachedLmdbMap<String, String> cached;
+    private String[] keys;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        openEnv();
+        map = env.map("map", keyCodec(), STRING_CODEC);
+        cached = new CachedLmdbMap<>(map, hotKeys);
+        String value = value(valueSize);
+
+        try (Transaction txn = env.txnWrite()) {
+            for (int i = 0; i < SIZE; i++) {
+                map.put(key(i, 16), value);
+            }
+            txn.commit();
+        }
+
+        keys = new String[hotKeys];
+        int[] order = shuffledIndexes(SIZE);
+        for (int i = 0; i < hotKeys; i++) {
+            keys[i] = key(order[i], 16);
+        }
+    }
+
+    private String nextKey() {
+        next = next + 1 == keys.length ? 0 : next + 1;
+        return keys[next];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void get(Blackhole bh) {
+        try (Transaction txn = env.txnRead()) {
+            for (int i = 0; i < OPS; i++) {
+                bh.consume(map.get(nextKey()));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void cachedGet(Blackhole bh) {
+        try (Transaction txn = env.txnRead()) {
+            for (int i = 0; i < OPS; i++) {
+                bh.consume(cached.get(nextKey()));
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package jheister.lmdbcollections.benchmarks;
+
+import jheister.lmdbcollections.LmdbStorageEnvironment;
+import jheister.lmdbcollections.codec.Codec;
+import org.lmdbjava.Env;
+import org.lmdbjava.EnvFlags;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+import static org.lmdbjava.EnvFlags.MDB_NOSYNC;
+
+@State(Scope.Benchmark)
+public abstract class EnvironmentState {
+    private static final long MAP_SIZE = 1024L * 1024 * 1024 * 4;
+
+    @Param({"nosync", "sync"})
+    public String durability;
+
+    @Param({"false", "true"})
+    public boolean comparator;
+
+    protected LmdbStorageEnvironment env;
+    private Path dir;
+
+    protected void openEnv() throws IOException {
+        dir = Files.createTempDirectory("lmdbcollections-benchmark");
+        if (noTls()) {
+            //the builder cannot set MDB_NOSYNC, which only matters to benchmarks that commit while measuring
+            env = LmdbStorageEnvironment.builder()
+                    .setMaxCollections(4)
+                    .setMaxTotalSize(MAP_SIZE)
+                    .noTls()
+                    .open(dir.toFile());
+            return;
+        }
+        EnvFlags[] flags = "nosync".equals(durability) ? new EnvFlags[]{MDB_NOSYNC} : new EnvFlags[0];
+        env = new LmdbStorageEnvironment(Env.create()
+                .setMapSize(MAP_SIZE)
+                .setMaxDbs(4)
+                .open(dir.toFile(), flags));
+    }
+
+    //parallel scans read one txn from several threads, which lmdb only allows with MDB_NOTLS
+    protected boolean noTls() {
+        return false;
+    }
+
+    @TearDown
+    public void closeEnv() throws IOException {
+        env.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    //same encoding either way so the only difference is the callback from lmdb into java
+    protected Codec<String> keyCodec() {
+        return comparator ? STRING_CODEC.comparedUsing(String::compareTo) : STRING_CODEC;
+    }
+
+    protected static String key(int i, int size) {
+        String digits = Integer.toString(i);
+        StringBuilder key = new StringBuilder(size);
+        for (int pad = digits.length(); pad < size; pad++) {
+            key.append('0');
+        }
+        return key.append(digits).toString();
+    }
+
+    protected static String value(int size) {
+        StringBuilder value = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            value.append((char) ('a' + i % 26));
+        }
+        return value.toString();
+    }
+
+    protected static int[] shuffledIndexes(int size) {
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        Random random = new Random(42);
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = tmp;
+        }
+        return indexes;
+    }
+}
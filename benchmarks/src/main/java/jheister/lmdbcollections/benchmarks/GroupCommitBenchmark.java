@@ -0,0 +1,84 @@
+package jheister.lmdbcollections.benchmarks;
+
+import jheister.lmdbcollections.GroupCommitWriter;
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.collections.LmdbMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+
+//many threads each writing a few entries, either with a transaction of their own or through the group commit writer.
+//sample mode reports the latency percentiles. batch sizes are covered by GroupCommitWriterTest
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens=java.base/java.nio=ALL-UNNAMED", "--add-opens=java.base/sun.nio.ch=ALL-UNNAMED"})
+public class GroupCommitBenchmark extends EnvironmentState {
+    private static final int ENTRIES_PER_WRITE = 4;
+    private static final int KEY_SPACE = 100000;
+
+    @Param({"0", "200"})
+    public int flushWindowMicros;
+
+    @Param({"1000"})
+    public int maxBatchSize;
+
+    private LmdbMap<String, String> map;
+    private GroupCommitWriter writer;
+    private String value;
+
+    @Setup
+    public void setup() throws IOException {
+        openEnv();
+        map = env.map("map", keyCodec(), STRING_CODEC);
+        value = value(64);
+        writer = GroupCommitWriter.builder()
+                .setMaxBatchSize(maxBatchSize)
+                .setFlushWindow(flushWindowMicros, TimeUnit.MICROSECONDS)
+                .start(env);
+    }
+
+    @TearDown
+    public void stopWriter() {
+        writer.close();
+    }
+
+    private void writeEntries() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < ENTRIES_PER_WRITE; i++) {
+            map.put(key(random.nextInt(KEY_SPACE), 16), value);
+        }
+    }
+
+    @Benchmark
+    public void ownTransaction() {
+        try (Transaction txn = env.txnWrite()) {
+            writeEntries();
+            txn.commit();
+        }
+    }
+
+    @Benchmark
+    public void groupCommit() {
+        writer.submit(this::writeEntries).join();
+    }
+}
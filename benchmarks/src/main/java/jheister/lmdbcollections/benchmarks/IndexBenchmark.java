@@ -0,0 +1,103 @@
+package jheister.lmdbcollections.benchmarks;
+
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.collections.LmdbIndex;
+import jheister.lmdbcollections.collections.LmdbMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+
+//finding the entries whose value has an attribute through an index and by scanning, and what the index adds to puts
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens=java.base/java.nio=ALL-UNNAMED", "--add-opens=java.base/sun.nio.ch=ALL-UNNAMED"})
+public class IndexBenchmark extends EnvironmentState {
+    private static final int GROUPS = 1000;
+
+    @Param({"100000"})
+    public int size;
+
+    private LmdbMap<String, String> map;
+    private LmdbMap<String, String> unindexed;
+    private LmdbIndex<String, String, String> index;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        openEnv();
+        map = env.map("map", keyCodec(), STRING_CODEC);
+        unindexed = env.map("unindexed", keyCodec(), STRING_CODEC);
+        index = env.index("index", map, STRING_CODEC, IndexBenchmark::group);
+        try (Transaction txn = env.txnWrite()) {
+            for (int i = 0; i < size; i++) {
+                map.put(key(i, 16), groupedValue(i));
+            }
+            txn.commit();
+        }
+    }
+
+    private static String groupedValue(int i) {
+        return key(i % GROUPS, 8) + ":" + value(100);
+    }
+
+    private static String group(String value) {
+        return value.substring(0, 8);
+    }
+
+    private String nextGroup() {
+        next = next + 1 == GROUPS ? 0 : next + 1;
+        return key(next, 8);
+    }
+
+    @Benchmark
+    public long findBy() {
+        try (Transaction txn = env.txnRead();
+             Stream<?> found = index.findBy(nextGroup())) {
+            return found.count();
+        }
+    }
+
+    @Benchmark
+    public long scan() {
+        String group = nextGroup();
+        try (Transaction txn = env.txnRead();
+             Stream<?> found = map.values().filter(v -> group(v).equals(group))) {
+            return found.count();
+        }
+    }
+
+    @Benchmark
+    public void putIndexed() {
+        try (Transaction txn = env.txnWrite()) {
+            int i = next++ % size;
+            map.put(key(i, 16), groupedValue(i + 1));
+            txn.commit();
+        }
+    }
+
+    @Benchmark
+    public void putUnindexed() {
+        try (Transaction txn = env.txnWrite()) {
+            int i = next++ % size;
+            unindexed.put(key(i, 16), groupedValue(i + 1));
+            txn.commit();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package jheister.lmdbcollections.benchmarks;
+
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.collections.LmdbMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static jheister.lmdbcollections.codec.Codec.INTEGER_CODEC;
+import static jheister.lmdbcollections.codec.Codec.ORDERED_INTEGER_CODEC;
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+
+//INTEGER_CODEC sorts through a java comparator, ORDERED_INTEGER_CODEC through lmdb's memcmp
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens=java.base/java.nio=ALL-UNNAMED", "--add-opens=java.base/sun.nio.ch=ALL-UNNAMED"})
+public class IntegerKeyBenchmark extends EnvironmentState {
+    private static final int OPS = 100;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private LmdbMap<Integer, String> map;
+    private int[] keys;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        openEnv();
+        map = env.map("map", comparator ? INTEGER_CODEC : ORDERED_INTEGER_CODEC, STRING_CODEC);
+        keys = shuffledIndexes(size);
+
+        try (Transaction txn = env.txnWrite()) {
+            for (int key : keys) {
+                map.put(key, "value");
+            }
+            txn.commit();
+        }
+    }
+
+    private int nextKey() {
+        next = next + 1 == keys.length ? 0 : next + 1;
+        return keys[next];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void put() {
+        try (Transaction txn = env.txnWrite()) {
+            for (int i = 0; i < OPS; i++) {
+                map.put(nextKey(), "value");
+            }
+            txn.commit();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void get(Blackhole bh) {
+        try (Transaction txn = env.txnRead()) {
+            for (int i = 0; i < OPS; i++) {
+                bh.consume(map.get(nextKey()));
+            }
+        }
+    }
+}
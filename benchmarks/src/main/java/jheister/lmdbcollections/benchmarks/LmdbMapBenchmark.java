@@ -0,0 +1,138 @@
+package jheister.lmdbcollections.benchmarks;
+
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.codec.Utf8View;
+import jheister.lmdbcollections.collections.Entry;
+import jheister.lmdbcollections.collections.LmdbMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens=java.base/java.nio=ALL-UNNAMED", "--add-opens=java.base/sun.nio.ch=ALL-UNNAMED"})
+public class LmdbMapBenchmark extends EnvironmentState {
+    private static final int OPS = 100;
+
+    @Param({"16", "128"})
+    public int keySize;
+
+    @Param({"32", "1024"})
+    public int valueSize;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private LmdbMap<String, String> map;
+    private String[] keys;
+    private String value;
+    private int next;
+    private final Utf8View view = new Utf8View();
+
+    @Setup
+    public void setup() throws IOException {
+        openEnv();
+        map = env.map("map", keyCodec(), STRING_CODEC);
+        value = value(valueSize);
+
+        keys = new String[size];
+        int[] order = shuffledIndexes(size);
+        for (int i = 0; i < size; i++) {
+            keys[i] = key(order[i], keySize);
+        }
+
+        try (Transaction txn = env.txnWrite()) {
+            for (int i = 0; i < size; i++) {
+                map.put(key(i, keySize), value);
+            }
+            txn.commit();
+        }
+    }
+
+    private String nextKey() {
+        next = next + 1 == keys.length ? 0 : next + 1;
+        return keys[next];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void put() {
+        try (Transaction txn = env.txnWrite()) {
+            for (int i = 0; i < OPS; i++) {
+                map.put(nextKey(), value);
+            }
+            txn.commit();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void get(Blackhole bh) {
+        try (Transaction txn = env.txnRead()) {
+            for (int i = 0; i < OPS; i++) {
+                bh.consume(map.get(nextKey()));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void getView(Blackhole bh) {
+        try (Transaction txn = env.txnRead()) {
+            for (int i = 0; i < OPS; i++) {
+                bh.consume(map.getView(nextKey(), view).getByte(0));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void getAll(Blackhole bh) {
+        List<String> batch = new ArrayList<>(OPS);
+        for (int i = 0; i < OPS; i++) {
+            batch.add(nextKey());
+        }
+        try (Transaction txn = env.txnRead()) {
+            bh.consume(map.getAll(batch));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void containsKey(Blackhole bh) {
+        try (Transaction txn = env.txnRead()) {
+            for (int i = 0; i < OPS; i++) {
+                bh.consume(map.containsKey(nextKey()));
+            }
+        }
+    }
+
+    @Benchmark
+    public void entries(Blackhole bh) {
+        try (Transaction txn = env.txnRead();
+             Stream<Entry<String, String>> entries = map.entries()) {
+            entries.forEach(bh::consume);
+        }
+    }
+}
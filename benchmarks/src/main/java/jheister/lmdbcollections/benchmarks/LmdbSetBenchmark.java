@@ -0,0 +1,92 @@
+package jheister.lmdbcollections.benchmarks;
+
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.collections.LmdbSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens=java.base/java.nio=ALL-UNNAMED", "--add-opens=java.base/sun.nio.ch=ALL-UNNAMED"})
+public class LmdbSetBenchmark extends EnvironmentState {
+    private static final int OPS = 100;
+
+    @Param({"16", "128"})
+    public int keySize;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private LmdbSet<String> set;
+    private String[] values;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        openEnv();
+        set = env.set("set", keyCodec());
+
+        values = new String[size];
+        int[] order = shuffledIndexes(size);
+        for (int i = 0; i < size; i++) {
+            values[i] = key(order[i], keySize);
+        }
+
+        try (Transaction txn = env.txnWrite()) {
+            for (int i = 0; i < size; i++) {
+                set.add(key(i, keySize));
+            }
+            txn.commit();
+        }
+    }
+
+    private String nextValue() {
+        next = next + 1 == values.length ? 0 : next + 1;
+        return values[next];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void add() {
+        try (Transaction txn = env.txnWrite()) {
+            for (int i = 0; i < OPS; i++) {
+                set.add(nextValue());
+            }
+            txn.commit();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void contains(Blackhole bh) {
+        try (Transaction txn = env.txnRead()) {
+            for (int i = 0; i < OPS; i++) {
+                bh.consume(set.contains(nextValue()));
+            }
+        }
+    }
+
+    @Benchmark
+    public void forEach(Blackhole bh) {
+        try (Transaction txn = env.txnRead()) {
+            set.forEach(bh::consume);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package jheister.lmdbcollections.benchmarks;
+
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.collections.LmdbSetMultimap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens=java.base/java.nio=ALL-UNNAMED", "--add-opens=java.base/sun.nio.ch=ALL-UNNAMED"})
+public class LmdbSetMultimapBenchmark extends EnvironmentState {
+    @Param({"16", "128"})
+    public int keySize;
+
+    @Param({"16", "128"})
+    public int valueSize;
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    @Param({"10", "1000"})
+    public int valuesPerKey;
+
+    private LmdbSetMultimap<String, String> multimap;
+    private String[] keys;
+    private String lastValue;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        openEnv();
+        multimap = env.sortedSetMultimap("multimap", keyCodec(), STRING_CODEC);
+
+        keys = new String[size];
+        int[] order = shuffledIndexes(size);
+        for (int i = 0; i < size; i++) {
+            keys[i] = key(order[i], keySize);
+        }
+
+        lastValue = key(valuesPerKey - 1, valueSize);
+        try (Transaction txn = env.txnWrite()) {
+            for (int i = 0; i < size; i++) {
+                String key = key(i, keySize);
+                for (int v = 0; v < valuesPerKey; v++) {
+                    multimap.put(key, key(v, valueSize));
+                }
+            }
+            txn.commit();
+        }
+    }
+
+    private String nextKey() {
+        next = next + 1 == keys.length ? 0 : next + 1;
+        return keys[next];
+    }
+
+    @Benchmark
+    public void get(Blackhole bh) {
+        try (Transaction txn = env.txnRead();
+             Stream<String> values = multimap.get(nextKey())) {
+            values.forEach(bh::consume);
+        }
+    }
+
+    @Benchmark
+    public long count() {
+        try (Transaction txn = env.txnRead()) {
+            return multimap.count(nextKey());
+        }
+    }
+
+    @Benchmark
+    public long countByScan() {
+        try (Transaction txn = env.txnRead();
+             Stream<String> values = multimap.get(nextKey())) {
+            return values.count();
+        }
+    }
+
+    //the last value of the key, the worst case for a scan
+    @Benchmark
+    public boolean containsEntry() {
+        try (Transaction txn = env.txnRead()) {
+            return multimap.containsEntry(nextKey(), lastValue);
+        }
+    }
+
+    @Benchmark
+    public boolean containsEntryByScan() {
+        try (Transaction txn = env.txnRead();
+             Stream<String> values = multimap.get(nextKey())) {
+            return values.anyMatch(lastValue::equals);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package jheister.lmdbcollections.benchmarks;
+
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.collections.LmdbTable;
+import jheister.lmdbcollections.collections.LmdbTable.TableEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens=java.base/java.nio=ALL-UNNAMED", "--add-opens=java.base/sun.nio.ch=ALL-UNNAMED"})
+public class LmdbTableBenchmark extends EnvironmentState {
+    private static final int OPS = 100;
+
+    @Param({"16", "128"})
+    public int keySize;
+
+    @Param({"32", "1024"})
+    public int valueSize;
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    @Param({"10", "100"})
+    public int columnsPerRow;
+
+    private LmdbTable<String, String, String> table;
+    private String[] rowKeys;
+    private String[] colKeys;
+    private int nextRow;
+    private int nextCol;
+
+    @Setup
+    public void setup() throws IOException {
+        openEnv();
+        table = env.table("table", keyCodec(), keyCodec(), STRING_CODEC);
+        String value = value(valueSize);
+
+        rowKeys = new String[rows];
+        int[] rowOrder = shuffledIndexes(rows);
+        for (int i = 0; i < rows; i++) {
+            rowKeys[i] = key(rowOrder[i], keySize);
+        }
+        colKeys = new String[columnsPerRow];
+        int[] colOrder = shuffledIndexes(columnsPerRow);
+        for (int i = 0; i < columnsPerRow; i++) {
+            colKeys[i] = key(colOrder[i], keySize);
+        }
+
+        try (Transaction txn = env.txnWrite()) {
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < columnsPerRow; c++) {
+                    table.put(key(r, keySize), key(c, keySize), value);
+                }
+            }
+            txn.commit();
+        }
+    }
+
+    @Override
+    protected boolean noTls() {
+        return true;
+    }
+
+    private String nextRow() {
+        nextRow = nextRow + 1 == rowKeys.length ? 0 : nextRow + 1;
+        return rowKeys[nextRow];
+    }
+
+    private String nextCol() {
+        nextCol = nextCol + 1 == colKeys.length ? 0 : nextCol + 1;
+        return colKeys[nextCol];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void get(Blackhole bh) {
+        try (Transaction txn = env.txnRead()) {
+            for (int i = 0; i < OPS; i++) {
+                bh.consume(table.get(nextRow(), nextCol()));
+            }
+        }
+    }
+
+    @Benchmark
+    public void rowEntries(Blackhole bh) {
+        try (Transaction txn = env.txnRead();
+             Stream<TableEntry<String, String, String>> entries = table.rowEntries(nextRow())) {
+            entries.forEach(bh::consume);
+        }
+    }
+
+    @Benchmark
+    public void entries(Blackhole bh) {
+        try (Transaction txn = env.txnRead();
+             Stream<TableEntry<String, String, String>> entries = table.entries()) {
+            entries.forEach(bh::consume);
+        }
+    }
+
+    @Benchmark
+    public long sumValueLengths() {
+        try (Transaction txn = env.txnRead();
+             Stream<TableEntry<String, String, String>> entries = table.entries()) {
+            return entries.mapToLong(e -> e.value.length()).sum();
+        }
+    }
+
+    @Benchmark
+    public long parallelSumValueLengths() {
+        try (Transaction txn = env.txnRead();
+             Stream<TableEntry<String, String, String>> entries = table.parallelEntries()) {
+            return entries.mapToLong(e -> e.value.length()).sum();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package jheister.lmdbcollections.benchmarks;
+
+import jheister.lmdbcollections.codec.Codec;
+import jheister.lmdbcollections.codec.ObjectCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+//encoding and decoding a small value class with a derived codec and with the codec one would write by hand for the
+//same encoding, into a direct buffer like the ones lmdb hands out
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens=java.base/java.nio=ALL-UNNAMED", "--add-opens=java.base/sun.nio.ch=ALL-UNNAMED"})
+public class ObjectCodecBenchmark {
+    @Param({"derived", "handWritten"})
+    public String codecType;
+
+    private Codec<Trade> codec;
+    private Trade trade;
+    private ByteBuffer buffer;
+    private ByteBuffer encoded;
+
+    @Setup
+    public void setup() {
+        codec = "derived".equals(codecType) ? ObjectCodec.generated(Trade.class) : new TradeCodec();
+        trade = new Trade();
+        trade.id = 123456789L;
+        trade.quantity = 250;
+        trade.price = 101.25;
+        trade.buy = true;
+        trade.symbol = "ACME";
+        trade.venue = "XLON";
+        buffer = ByteBuffer.allocateDirect(256);
+        encoded = ByteBuffer.allocateDirect(256);
+        codec.serialize(trade, encoded);
+        encoded.flip();
+    }
+
+    @Benchmark
+    public ByteBuffer serialize() {
+        buffer.clear();
+        codec.serialize(trade, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Trade deserialize() {
+        return codec.deserialize(encoded.duplicate());
+    }
+
+    public static class Trade {
+        long id;
+        int quantity;
+        double price;
+        boolean buy;
+        String symbol;
+        String venue;
+    }
+
+    //the derived encoding for strings shorter than 127 bytes, written the usual way
+    static class TradeCodec implements Codec<Trade> {
+        @Override
+        public Trade deserialize(ByteBuffer buffer) {
+            buffer.get();
+            Trade trade = new Trade();
+            trade.id = buffer.getLong();
+            trade.quantity = buffer.getInt();
+            trade.price = buffer.getDouble();
+            trade.buy = buffer.get() != 0;
+            trade.symbol = getString(buffer);
+            trade.venue = getString(buffer);
+            return trade;
+        }
+
+        @Override
+        public void serialize(Trade value, ByteBuffer target) {
+            target.put((byte) 6);
+            target.putLong(value.id);
+            target.putInt(value.quantity);
+            target.putDouble(value.price);
+            target.put(value.buy ? (byte) 1 : 0);
+            putString(value.symbol, target);
+            putString(value.venue, target);
+        }
+
+        private static void putString(String value, ByteBuffer target) {
+            byte[] bytes = value.getBytes(UTF_8);
+            target.put((byte) (bytes.length + 1));
+            target.put(bytes);
+        }
+
+        private static String getString(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.get() - 1];
+            buffer.get(bytes);
+            return new String(bytes, UTF_8);
+        }
+    }
+}
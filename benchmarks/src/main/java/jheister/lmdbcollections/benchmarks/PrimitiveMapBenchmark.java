@@ -0,0 +1,107 @@
+package jheister.lmdbcollections.benchmarks;
+
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.collections.LmdbIntMap;
+import jheister.lmdbcollections.collections.LmdbMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static jheister.lmdbcollections.codec.Codec.ORDERED_INTEGER_CODEC;
+
+//boxed LmdbMap with memcmp ordered ints against LmdbIntMap on an MDB_INTEGERKEY dbi
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens=java.base/java.nio=ALL-UNNAMED", "--add-opens=java.base/sun.nio.ch=ALL-UNNAMED"})
+public class PrimitiveMapBenchmark extends EnvironmentState {
+    private static final int OPS = 100;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private LmdbMap<Integer, Integer> boxed;
+    private LmdbIntMap primitive;
+    private int[] keys;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        openEnv();
+        boxed = env.map("boxed", ORDERED_INTEGER_CODEC, ORDERED_INTEGER_CODEC);
+        primitive = env.intMap("primitive");
+        keys = shuffledIndexes(size);
+
+        try (Transaction txn = env.txnWrite()) {
+            for (int key : keys) {
+                boxed.put(key, key);
+                primitive.put(key, key);
+            }
+            txn.commit();
+        }
+    }
+
+    private int nextKey() {
+        next = next + 1 == keys.length ? 0 : next + 1;
+        return keys[next];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void boxedGet(Blackhole bh) {
+        try (Transaction txn = env.txnRead()) {
+            for (int i = 0; i < OPS; i++) {
+                bh.consume(boxed.get(nextKey()));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void primitiveGet(Blackhole bh) {
+        try (Transaction txn = env.txnRead()) {
+            for (int i = 0; i < OPS; i++) {
+                bh.consume(primitive.get(nextKey()));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void boxedPut() {
+        try (Transaction txn = env.txnWrite()) {
+            for (int i = 0; i < OPS; i++) {
+                int key = nextKey();
+                boxed.put(key, key);
+            }
+            txn.commit();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void primitivePut() {
+        try (Transaction txn = env.txnWrite()) {
+            for (int i = 0; i < OPS; i++) {
+                int key = nextKey();
+                primitive.put(key, key);
+            }
+            txn.commit();
+        }
+    }
+}
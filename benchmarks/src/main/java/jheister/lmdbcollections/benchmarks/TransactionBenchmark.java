@@ -0,0 +1,87 @@
+package jheister.lmdbcollections.benchmarks;
+
+import jheister.lmdbcollections.LmdbStorageEnvironment;
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.collections.LmdbMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens=java.base/java.nio=ALL-UNNAMED", "--add-opens=java.base/sun.nio.ch=ALL-UNNAMED"})
+public class TransactionBenchmark {
+    @Param({"false", "true"})
+    public boolean reuseReadTransactions;
+
+    private LmdbStorageEnvironment env;
+    private LmdbMap<String, String> map;
+    private Path dir;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("lmdbcollections-benchmark");
+        LmdbStorageEnvironment.Builder builder = LmdbStorageEnvironment.builder().setMaxCollections(1);
+        if (reuseReadTransactions) {
+            builder.reuseReadTransactions();
+        }
+        env = builder.open(dir.toFile());
+        map = env.map("map", STRING_CODEC, STRING_CODEC);
+
+        try (Transaction txn = env.txnWrite()) {
+            map.put("key", "value");
+            txn.commit();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        env.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public void readTxn() {
+        try (Transaction txn = env.txnRead()) {
+        }
+    }
+
+    @Benchmark
+    public String readTxnWithGet() {
+        try (Transaction txn = env.txnRead()) {
+            return map.get("key");
+        }
+    }
+
+    @Benchmark
+    public void writeTxn() {
+        try (Transaction txn = env.txnWrite()) {
+            map.put("key", "value");
+            txn.commit();
+        }
+    }
+}
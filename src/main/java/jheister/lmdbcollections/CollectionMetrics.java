@@ -0,0 +1,129 @@
+package jheister.lmdbcollections;
+
+import java.util.concurrent.atomic.LongAdder;
+
+//operation counts, latencies and encoded / decoded bytes of one collection. a scan's latency runs from opening
+//its stream to closing it. DISABLED never reads the clock, so instrumented code costs a predictable branch
+public class CollectionMetrics implements CollectionMetricsMXBean {
+    public static final CollectionMetrics DISABLED = new CollectionMetrics(false);
+
+    public enum Op {
+        GET, PUT, REMOVE, SCAN
+    }
+
+    private final boolean enabled;
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Op.values().length];
+    private final LongAdder bytesEncoded = new LongAdder();
+    private final LongAdder bytesDecoded = new LongAdder();
+
+    public CollectionMetrics() {
+        this(true);
+    }
+
+    private CollectionMetrics(boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void record(Op op, long start) {
+        if (enabled) {
+            latencies[op.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    public void encoded(int bytes) {
+        if (enabled) {
+            bytesEncoded.add(bytes);
+        }
+    }
+
+    public void decoded(int bytes) {
+        if (enabled) {
+            bytesDecoded.add(bytes);
+        }
+    }
+
+    public LatencyHistogram latency(Op op) {
+        return latencies[op.ordinal()];
+    }
+
+    @Override
+    public long getGetCount() {
+        return latency(Op.GET).count();
+    }
+
+    @Override
+    public double getGetMeanNanos() {
+        return latency(Op.GET).meanNanos();
+    }
+
+    @Override
+    public long getGetP99Nanos() {
+        return latency(Op.GET).percentileNanos(99);
+    }
+
+    @Override
+    public long getPutCount() {
+        return latency(Op.PUT).count();
+    }
+
+    @Override
+    public double getPutMeanNanos() {
+        return latency(Op.PUT).meanNanos();
+    }
+
+    @Override
+    public long getPutP99Nanos() {
+        return latency(Op.PUT).percentileNanos(99);
+    }
+
+    @Override
+    public long getRemoveCount() {
+        return latency(Op.REMOVE).count();
+    }
+
+    @Override
+    public double getRemoveMeanNanos() {
+        return latency(Op.REMOVE).meanNanos();
+    }
+
+    @Override
+    public long getRemoveP99Nanos() {
+        return latency(Op.REMOVE).percentileNanos(99);
+    }
+
+    @Override
+    public long getScanCount() {
+        return latency(Op.SCAN).count();
+    }
+
+    @Override
+    public double getScanMeanNanos() {
+        return latency(Op.SCAN).meanNanos();
+    }
+
+    @Override
+    public long getScanP99Nanos() {
+        return latency(Op.SCAN).percentileNanos(99);
+    }
+
+    @Override
+    public long getBytesEncoded() {
+        return bytesEncoded.sum();
+    }
+
+    @Override
+    public long getBytesDecoded() {
+        return bytesDecoded.sum();
+    }
+}
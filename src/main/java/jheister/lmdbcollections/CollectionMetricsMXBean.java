@@ -0,0 +1,31 @@
+package jheister.lmdbcollections;
+
+public interface CollectionMetricsMXBean {
+    long getGetCount();
+
+    double getGetMeanNanos();
+
+    long getGetP99Nanos();
+
+    long getPutCount();
+
+    double getPutMeanNanos();
+
+    long getPutP99Nanos();
+
+    long getRemoveCount();
+
+    double getRemoveMeanNanos();
+
+    long getRemoveP99Nanos();
+
+    long getScanCount();
+
+    double getScanMeanNanos();
+
+    long getScanP99Nanos();
+
+    long getBytesEncoded();
+
+    long getBytesDecoded();
+}
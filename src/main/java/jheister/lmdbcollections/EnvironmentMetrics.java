@@ -0,0 +1,92 @@
+package jheister.lmdbcollections;
+
+//opening a write txn includes waiting for lmdb's writer lock, holding one runs from open until close
+public class EnvironmentMetrics implements EnvironmentMetricsMXBean {
+    public static final EnvironmentMetrics DISABLED = new EnvironmentMetrics(false);
+
+    private final boolean enabled;
+    public final LatencyHistogram readTxnOpen = new LatencyHistogram();
+    public final LatencyHistogram writeTxnOpen = new LatencyHistogram();
+    public final LatencyHistogram writeTxnHeld = new LatencyHistogram();
+    public final LatencyHistogram commit = new LatencyHistogram();
+    //how long each growth of the map blocked txns for
+    public final LatencyHistogram mapGrowth = new LatencyHistogram();
+
+    public EnvironmentMetrics() {
+        this(true);
+    }
+
+    private EnvironmentMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void record(LatencyHistogram histogram, long start) {
+        if (enabled) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public long getReadTxnCount() {
+        return readTxnOpen.count();
+    }
+
+    @Override
+    public double getReadTxnOpenMeanNanos() {
+        return readTxnOpen.meanNanos();
+    }
+
+    @Override
+    public long getWriteTxnCount() {
+        return writeTxnOpen.count();
+    }
+
+    @Override
+    public double getWriteTxnOpenMeanNanos() {
+        return writeTxnOpen.meanNanos();
+    }
+
+    @Override
+    public long getWriteTxnOpenP99Nanos() {
+        return writeTxnOpen.percentileNanos(99);
+    }
+
+    @Override
+    public double getWriteTxnHeldMeanNanos() {
+        return writeTxnHeld.meanNanos();
+    }
+
+    @Override
+    public long getWriteTxnHeldP99Nanos() {
+        return writeTxnHeld.percentileNanos(99);
+    }
+
+    @Override
+    public long getCommitCount() {
+        return commit.count();
+    }
+
+    @Override
+    public double getCommitMeanNanos() {
+        return commit.meanNanos();
+    }
+
+    @Override
+    public long getCommitP99Nanos() {
+        return commit.percentileNanos(99);
+    }
+
+    @Override
+    public long getMapGrowthCount() {
+        return mapGrowth.count();
+    }
+
+    @Override
+    public double getMapGrowthMeanNanos() {
+        return mapGrowth.meanNanos();
+    }
+}
@@ -0,0 +1,27 @@
+package jheister.lmdbcollections;
+
+public interface EnvironmentMetricsMXBean {
+    long getReadTxnCount();
+
+    double getReadTxnOpenMeanNanos();
+
+    long getWriteTxnCount();
+
+    double getWriteTxnOpenMeanNanos();
+
+    long getWriteTxnOpenP99Nanos();
+
+    double getWriteTxnHeldMeanNanos();
+
+    long getWriteTxnHeldP99Nanos();
+
+    long getCommitCount();
+
+    double getCommitMeanNanos();
+
+    long getCommitP99Nanos();
+
+    long getMapGrowthCount();
+
+    double getMapGrowthMeanNanos();
+}
@@ -0,0 +1,69 @@
+package jheister.lmdbcollections;
+
+import java.util.List;
+
+//pages 0 and 1 hold lmdb's meta pages, every other page up to lastPageNumber is either in one of the trees or on
+//the free list. free pages are reused by later writes, so a large free share means a copy would compact the file
+public class EnvironmentStats {
+    private static final int META_PAGES = 2;
+
+    public final long mapSize;
+    public final int pageSize;
+    public final long lastPageNumber;
+    public final long lastTransactionId;
+    public final int maxReaders;
+    //slots ever taken, including those held by reset read txns and by exited threads until lmdb reclaims them
+    public final int numReaders;
+    //the unnamed main database first, then every collection
+    public final List<Stats> collections;
+
+    public EnvironmentStats(long mapSize, int pageSize, long lastPageNumber, long lastTransactionId, int maxReaders, int numReaders, List<Stats> collections) {
+        this.mapSize = mapSize;
+        this.pageSize = pageSize;
+        this.lastPageNumber = lastPageNumber;
+        this.lastTransactionId = lastTransactionId;
+        this.maxReaders = maxReaders;
+        this.numReaders = numReaders;
+        this.collections = collections;
+    }
+
+    public long usedSize() {
+        return (lastPageNumber + 1) * pageSize;
+    }
+
+    //share of the map the file has grown into, MDB_MAP_FULL is raised once a write needs more than is left
+    public double mapUsage() {
+        return (double) usedSize() / mapSize;
+    }
+
+    public long treePages() {
+        return collections.stream().mapToLong(s -> s.branchPages + s.leafPages + s.overflowPages).sum();
+    }
+
+    //estimate of the pages on the free list (including the free list's own pages)
+    public long freePages() {
+        return Math.max(lastPageNumber + 1 - META_PAGES - treePages(), 0);
+    }
+
+    public double freeRatio() {
+        return lastPageNumber < META_PAGES ? 0 : (double) freePages() / (lastPageNumber + 1);
+    }
+
+    public double readerUsage() {
+        return (double) numReaders / maxReaders;
+    }
+
+    @Override
+    public String toString() {
+        return "EnvironmentStats{" +
+                "mapSize=" + mapSize +
+                ", pageSize=" + pageSize +
+                ", lastPageNumber=" + lastPageNumber +
+                ", lastTransactionId=" + lastTransactionId +
+                ", maxReaders=" + maxReaders +
+                ", numReaders=" + numReaders +
+                ", freePages=" + freePages() +
+                ", collections=" + collections +
+                '}';
+    }
+}
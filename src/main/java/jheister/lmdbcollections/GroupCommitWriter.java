@@ -0,0 +1,243 @@
+package jheister.lmdbcollections;
+
+import org.lmdbjava.Env;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+//funnels mutations from many threads through one writer thread, which applies everything that is queued (up to
+//maxBatchSize, waiting at most flushWindow for more) in a single write transaction so the batch shares one commit.
+//mutations run on the writer thread with its transaction current, so they use collections as usual.
+//a mutation that throws only fails its own future: the transaction is aborted and the rest of the batch replayed.
+//a batch that fills the map is replayed whole once the env has grown it (see Builder.autoGrow)
+public class GroupCommitWriter implements AutoCloseable {
+    private static final Pending POISON = new Pending(null);
+
+    private final LmdbStorageEnvironment env;
+    private final int maxBatchSize;
+    private final long flushWindowNanos;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final Stats stats = new Stats();
+    //guards closed so a mutation is either queued ahead of POISON or refused, never left behind the final drain
+    private final Object submitLock = new Object();
+    private boolean closed;
+
+    private GroupCommitWriter(LmdbStorageEnvironment env, int maxBatchSize, long flushWindowNanos) {
+        this.env = env;
+        this.maxBatchSize = maxBatchSize;
+        this.flushWindowNanos = flushWindowNanos;
+        this.writer = new Thread(this::run, "lmdb-group-commit");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    //completes once the mutation's batch is committed
+    public CompletableFuture<Void> submit(Runnable mutation) {
+        Pending pending = new Pending(mutation);
+        synchronized (submitLock) {
+            if (closed) {
+                throw new IllegalStateException("Writer is closed");
+            }
+            queue.add(pending);
+        }
+        return pending.future;
+    }
+
+    public Stats stats() {
+        return stats;
+    }
+
+    //commits everything already submitted before returning
+    @Override
+    public void close() {
+        synchronized (submitLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(POISON);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                stopping = collectBatch(batch);
+            } catch (InterruptedException e) {
+                stopping = true;
+            }
+            if (!batch.isEmpty()) {
+                apply(batch);
+                batch.clear();
+            }
+        }
+        Pending leftover;
+        while ((leftover = queue.poll()) != null) {
+            if (leftover != POISON) {
+                leftover.future.completeExceptionally(new IllegalStateException("Writer is closed"));
+            }
+        }
+    }
+
+    //returns true once the writer has been closed
+    private boolean collectBatch(List<Pending> batch) throws InterruptedException {
+        Pending first = queue.take();
+        if (first == POISON) {
+            return true;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushWindowNanos;
+        while (batch.size() < maxBatchSize) {
+            Pending next = queue.poll();
+            if (next == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || (next = queue.poll(remaining, TimeUnit.NANOSECONDS)) == null) {
+                    return false;
+                }
+            }
+            if (next == POISON) {
+                return true;
+            }
+            batch.add(next);
+        }
+        return false;
+    }
+
+    private void apply(List<Pending> batch) {
+        List<Pending> remaining = new ArrayList<>(batch);
+        while (!remaining.isEmpty()) {
+            Pending failed = null;
+            Env.MapFullException mapFull = null;
+            try (Transaction txn = env.txnWrite()) {
+                for (Pending pending : remaining) {
+                    try {
+                        pending.mutation.run();
+                    } catch (Env.MapFullException e) {
+                        mapFull = e;
+                        break;
+                    } catch (Throwable e) {
+                        //errors too, or they would end the writer thread with every queued future left pending
+                        pending.future.completeExceptionally(e);
+                        failed = pending;
+                        break;
+                    }
+                }
+                if (failed == null && mapFull == null) {
+                    txn.commit();
+                }
+            } catch (Env.MapFullException e) {
+                mapFull = e;
+            } catch (Throwable e) {
+                //commit itself failed, nothing of the batch was written
+                fail(remaining, e);
+                return;
+            }
+            if (mapFull != null) {
+                //the whole batch was aborted, so it is run again once the map has grown
+                if (!env.growMap()) {
+                    fail(remaining, mapFull);
+                    return;
+                }
+                stats.retries.increment();
+                continue;
+            }
+            if (failed == null) {
+                long now = System.nanoTime();
+                stats.batches.increment();
+                stats.mutations.add(remaining.size());
+                for (Pending pending : remaining) {
+                    stats.latency.record(now - pending.submittedNanos);
+                    pending.future.complete(null);
+                }
+                return;
+            }
+            stats.failed.increment();
+            stats.retries.increment();
+            remaining.remove(failed);
+        }
+    }
+
+    private void fail(List<Pending> remaining, Throwable e) {
+        for (Pending pending : remaining) {
+            pending.future.completeExceptionally(e);
+        }
+        stats.failed.add(remaining.size());
+    }
+
+    private static class Pending {
+        final Runnable mutation;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final long submittedNanos = System.nanoTime();
+
+        Pending(Runnable mutation) {
+            this.mutation = mutation;
+        }
+    }
+
+    public static class Stats {
+        public final LongAdder batches = new LongAdder();
+        public final LongAdder mutations = new LongAdder();
+        public final LongAdder failed = new LongAdder();
+        public final LongAdder retries = new LongAdder();
+        //submit to commit
+        public final LatencyHistogram latency = new LatencyHistogram();
+
+        public double meanBatchSize() {
+            long batchCount = batches.sum();
+            return batchCount == 0 ? 0 : (double) mutations.sum() / batchCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{" +
+                    "batches=" + batches +
+                    ", mutations=" + mutations +
+                    ", failed=" + failed +
+                    ", retries=" + retries +
+                    ", meanBatchSize=" + meanBatchSize() +
+                    ", latency=" + latency +
+                    '}';
+        }
+    }
+
+    public static class Builder {
+        private int maxBatchSize = 1000;
+        private long flushWindowNanos = 0;
+
+        private Builder() {
+        }
+
+        public Builder setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        //how long to wait for more mutations after the first one of a batch arrives. with the default of zero
+        //a batch is whatever queued up while the previous commit was running
+        public Builder setFlushWindow(long time, TimeUnit unit) {
+            this.flushWindowNanos = unit.toNanos(time);
+            return this;
+        }
+
+        public GroupCommitWriter start(LmdbStorageEnvironment env) {
+            return new GroupCommitWriter(env, maxBatchSize, flushWindowNanos);
+        }
+    }
+}
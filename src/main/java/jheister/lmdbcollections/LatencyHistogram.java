@@ -0,0 +1,79 @@
+package jheister.lmdbcollections;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+//HdrHistogram style buckets: every power of two range is split into SUB_BUCKETS linear buckets, so recording is a
+//lock free increment and a percentile is accurate to within 1/SUB_BUCKETS (about 3%). values below SUB_BUCKETS are
+//counted exactly
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    //values are non-negative longs, whose highest bit set is at most 62
+    private static final int BUCKETS = (62 - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(bucket(value));
+        total.increment();
+        sumNanos.add(value);
+    }
+
+    public long count() {
+        return total.sum();
+    }
+
+    public double meanNanos() {
+        long count = count();
+        return count == 0 ? 0 : (double) sumNanos.sum() / count;
+    }
+
+    //upper bound of the bucket holding the given percentile, 0 when nothing was recorded
+    public long percentileNanos(double percentile) {
+        long count = count();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return upperBound(bucket);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    //the top SUB_BUCKET_BITS + 1 bits of the value pick the bucket within its power of two
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{" +
+                "count=" + count() +
+                ", meanNanos=" + (long) meanNanos() +
+                ", p50Nanos=" + percentileNanos(50) +
+                ", p99Nanos=" + percentileNanos(99) +
+                '}';
+    }
+}
@@ -1,43 +1,195 @@
 package jheister.lmdbcollections;
 
 import jheister.lmdbcollections.codec.Codec;
+import jheister.lmdbcollections.codec.CompressingCodec;
+import jheister.lmdbcollections.codec.DictionaryTrainer;
+import jheister.lmdbcollections.collections.CachedLmdbMap;
+import jheister.lmdbcollections.collections.LmdbIndex;
+import jheister.lmdbcollections.collections.LmdbIntMap;
+import jheister.lmdbcollections.collections.LmdbLongMap;
+import jheister.lmdbcollections.collections.LmdbLongSet;
+import jheister.lmdbcollections.collections.LmdbLongSetMultimap;
 import jheister.lmdbcollections.collections.LmdbMap;
 import jheister.lmdbcollections.collections.LmdbSet;
 import jheister.lmdbcollections.collections.LmdbSetMultimap;
 import jheister.lmdbcollections.collections.LmdbTable;
+import jheister.lmdbcollections.collections.LmdbTable.KeyLayout;
+import org.lmdbjava.CursorIterable;
 import org.lmdbjava.Dbi;
 import org.lmdbjava.Env;
+import org.lmdbjava.EnvFlags;
+import org.lmdbjava.EnvInfo;
+import org.lmdbjava.KeyRange;
+import org.lmdbjava.PutFlags;
 import org.lmdbjava.Stat;
 import org.lmdbjava.Txn;
 
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
 import java.io.File;
+import java.lang.management.ManagementFactory;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.stream.Collectors.toList;
 import static org.lmdbjava.DbiFlags.MDB_CREATE;
+import static org.lmdbjava.DbiFlags.MDB_DUPFIXED;
 import static org.lmdbjava.DbiFlags.MDB_DUPSORT;
+import static org.lmdbjava.DbiFlags.MDB_INTEGERDUP;
+import static org.lmdbjava.DbiFlags.MDB_INTEGERKEY;
+import static org.lmdbjava.EnvFlags.MDB_NOTLS;
 
 public class LmdbStorageEnvironment implements AutoCloseable {
     private static final int LMDB_MAX_KEY = 511;
-    private static final int MAX_VALUE_SIZE = 4096 * 10;
+    //a db of its own, for which Builder.open reserves a slot beyond maxCollections. an env wrapped directly must
+    //allow for it in its max dbs once a compressing codec is used
+    private static final String DICTIONARIES = "__dictionaries";
+    //values too large for it grow the txn's buffer, see Transaction.serializeValue
+    private static final int INITIAL_VALUE_BUFFER_SIZE = 4096 * 10;
 
     private final Env<ByteBuffer> env;
     private final ThreadLocalTransaction threadLocalTransaction = new ThreadLocalTransaction();
+    private final TransactionPool transactionPool;
+    private final boolean reuseReadTransactions;
+    private final boolean noTls;
+    private final ThreadLocal<Txn<ByteBuffer>> idleReadTxn = new ThreadLocal<>();
+    //with MDB_NOTLS reader slots belong to the txn rather than the thread, so reset txns are shared by all threads
+    private final Queue<Txn<ByteBuffer>> sharedIdleReadTxns = new ConcurrentLinkedQueue<>();
+    private final Set<Txn<ByteBuffer>> idleReadTxns = ConcurrentHashMap.newKeySet();
+    private final String metricsName;
+    private final EnvironmentMetrics metrics;
+    private final Map<String, CollectionMetrics> collectionMetrics = new ConcurrentHashMap<>();
+    private final Map<String, Dbi<ByteBuffer>> statsDbis = new ConcurrentHashMap<>();
+    //by map name, shared by every map opened under it
+    private final Map<String, List<LmdbIndex<?, ?, ?>>> indexes = new ConcurrentHashMap<>();
+    private Dbi<ByteBuffer> mainDbi;
+    private Dbi<ByteBuffer> dictionaries;
+    private final double growthFactor;
+    private final long maxGrownSize;
+    //with auto-grow every txn passes this gate, so the map can be resized while none is open
+    private final ReentrantLock resizeLock = new ReentrantLock();
+    private final Condition resizeGate = resizeLock.newCondition();
+    private int openTxns;
+    private boolean resizing;
 
     public LmdbStorageEnvironment(Env<ByteBuffer> env) {
+        this(env, new Builder());
+    }
+
+    private LmdbStorageEnvironment(Env<ByteBuffer> env, Builder settings) {
         this.env = env;
+        //one for each reader slot plus the single writer
+        this.transactionPool = new TransactionPool(env.info().maxReaders + 1, LMDB_MAX_KEY, INITIAL_VALUE_BUFFER_SIZE, this::checkin);
+        this.reuseReadTransactions = settings.reuseReadTransactions;
+        this.noTls = settings.noTls;
+        this.metricsName = settings.metricsName;
+        this.growthFactor = settings.growthFactor;
+        this.maxGrownSize = settings.maxGrownSize;
+        this.metrics = metricsName == null ? EnvironmentMetrics.DISABLED : new EnvironmentMetrics();
+        if (metricsName != null) {
+            register(objectName("type=Environment"), metrics);
+        }
     }
 
     //todo: speed comparison with / without comparator - how much does the callback to java cost?
     public <R, C, V> LmdbTable<R, C, V> table(String name, Codec<R> rowKeyCodec, Codec<C> colKeyCodec, Codec<V> valueCodec) {
-        return LmdbTable.create(env, name, threadLocalTransaction, rowKeyCodec, colKeyCodec, valueCodec);
+        return table(name, rowKeyCodec, colKeyCodec, valueCodec, KeyLayout.LENGTH_PREFIXED);
+    }
+
+    public <R, C, V> LmdbTable<R, C, V> table(String name, Codec<R> rowKeyCodec, Codec<C> colKeyCodec, Codec<V> valueCodec, KeyLayout keyLayout) {
+        return LmdbTable.create(env, name, threadLocalTransaction, rowKeyCodec, colKeyCodec, valueCodec, keyLayout, collectionMetrics(name));
     }
 
+    @SuppressWarnings({"unchecked", "rawtypes"})
     public <K, V> LmdbMap<K, V> map(String name, Codec<K> keyCodec, Codec<V> valueCodec) {
-        return new LmdbMap<>(env.openDbi(name, keyCodec.comparator(), MDB_CREATE), keyCodec, valueCodec, threadLocalTransaction);
+        List mapIndexes = indexes.computeIfAbsent(name, n -> new CopyOnWriteArrayList<>());
+        return new LmdbMap<>(env.openDbi(name, keyCodec.comparator(), MDB_CREATE), keyCodec, valueCodec, threadLocalTransaction, collectionMetrics(name), mapIndexes);
+    }
+
+    //a secondary index of the map in a MDB_DUPSORT db of its own, which every map opened under the map's name keeps
+    //up to date from now on. built from the map's entries if its db is empty. declaring it again with the same name
+    //replaces the extractor. like opening a collection this must not be called in a txn
+    public <I, K, V> LmdbIndex<I, K, V> index(String name, LmdbMap<K, V> map, Codec<I> indexCodec, Function<V, I> extractor) {
+        return LmdbIndex.create(this, name, env.openDbi(name, indexCodec.comparator(), MDB_CREATE, MDB_DUPSORT),
+                map, indexCodec, extractor, threadLocalTransaction, collectionMetrics(name));
+    }
+
+    //every write to the collection has to go through the returned wrapper for the cache to stay coherent
+    public <K, V> CachedLmdbMap<K, V> cachedMap(String name, Codec<K> keyCodec, Codec<V> valueCodec, int maxCachedEntries) {
+        return new CachedLmdbMap<>(map(name, keyCodec, valueCodec), maxCachedEntries);
+    }
+
+    //a codec compressing values with dictionaries stored in the env under the given name, loading those trained
+    //before. like opening a collection this must not be called in a txn
+    public <T> CompressingCodec<T> compressingCodec(String name, Codec<T> valueCodec) {
+        CompressingCodec<T> codec = new CompressingCodec<>(name, valueCodec);
+        ByteBuffer prefix = dictionaryKey(name, 0);
+        prefix.limit(prefix.limit() - 1);
+        Dbi<ByteBuffer> db = dictionaries();
+        try (Txn<ByteBuffer> txn = env.txnRead();
+             CursorIterable<ByteBuffer> iterable = db.iterate(txn, KeyRange.atLeast(prefix))) {
+            for (CursorIterable.KeyVal<ByteBuffer> kv : iterable) {
+                ByteBuffer key = kv.key();
+                if (key.remaining() != prefix.remaining() + 1 || key.duplicate().limit(key.limit() - 1).compareTo(prefix) != 0) {
+                    break;
+                }
+                byte[] dictionary = new byte[kv.val().remaining()];
+                kv.val().get(dictionary);
+                codec.addDictionary(key.get(key.limit() - 1), dictionary);
+            }
+        }
+        return codec;
+    }
+
+    //trains a dictionary from sample values (a few hundred of a collection's values, say) and stores it as the
+    //codec's next version, used for writes once committed. commits its own write txn so must not be called in one
+    public <T> void trainDictionary(CompressingCodec<T> codec, Collection<T> samples, int dictionarySize) {
+        int version = codec.currentVersion() + 1;
+        if (version > CompressingCodec.MAX_VERSION) {
+            throw new IllegalStateException("No dictionary versions left for " + codec.name());
+        }
+        List<byte[]> encoded = samples.stream().map(codec::uncompressed).collect(toList());
+        byte[] dictionary = DictionaryTrainer.train(encoded, dictionarySize);
+
+        ByteBuffer key = dictionaryKey(codec.name(), version);
+        ByteBuffer value = ByteBuffer.allocateDirect(Math.max(dictionary.length, 1));
+        value.put(dictionary).flip();
+        Dbi<ByteBuffer> db = dictionaries();
+        writeAndCommit(txn -> {
+            if (!db.put(txn.lmdbTxn(), key, value, PutFlags.MDB_NOOVERWRITE)) {
+                throw new IllegalStateException("Dictionary version " + version + " of " + codec.name() + " already exists");
+            }
+        });
+        codec.addDictionary(version, dictionary);
+    }
+
+    private static ByteBuffer dictionaryKey(String name, int version) {
+        byte[] nameBytes = name.getBytes(UTF_8);
+        ByteBuffer key = ByteBuffer.allocateDirect(nameBytes.length + 2);
+        key.put(nameBytes).put((byte) 0).put((byte) version).flip();
+        return key;
+    }
+
+    private synchronized Dbi<ByteBuffer> dictionaries() {
+        if (dictionaries == null) {
+            dictionaries = env.openDbi(DICTIONARIES, MDB_CREATE);
+        }
+        return dictionaries;
     }
 
     public <T> LmdbSet<T> set(String name, Codec<T> codec) {
@@ -46,50 +198,313 @@ public class LmdbStorageEnvironment implements AutoCloseable {
 
     //todo: work out what to do about comparators
     public <K, V> LmdbSetMultimap<K, V> sortedSetMultimap(String name, Codec<K> keyCodec, Codec<V> valueCodec) {
-        return new LmdbSetMultimap<>(env.openDbi(name, MDB_CREATE, MDB_DUPSORT), keyCodec, valueCodec, threadLocalTransaction);
+        return new LmdbSetMultimap<>(env.openDbi(name, MDB_CREATE, MDB_DUPSORT), keyCodec, valueCodec, threadLocalTransaction, collectionMetrics(name));
+    }
+
+    public LmdbLongMap longMap(String name) {
+        return new LmdbLongMap(env.openDbi(name, MDB_CREATE, MDB_INTEGERKEY), threadLocalTransaction);
+    }
+
+    public LmdbIntMap intMap(String name) {
+        return new LmdbIntMap(env.openDbi(name, MDB_CREATE, MDB_INTEGERKEY), threadLocalTransaction);
+    }
+
+    public LmdbLongSet longSet(String name) {
+        return new LmdbLongSet(env.openDbi(name, MDB_CREATE, MDB_INTEGERKEY), threadLocalTransaction);
+    }
+
+    public LmdbLongSetMultimap longSetMultimap(String name) {
+        return new LmdbLongSetMultimap(env.openDbi(name, MDB_CREATE, MDB_INTEGERKEY, MDB_DUPSORT, MDB_DUPFIXED, MDB_INTEGERDUP), threadLocalTransaction);
     }
 
     @Override
     public void close() {
+        for (Txn<ByteBuffer> txn : idleReadTxns) {
+            //lmdbjava only aborts a txn on close when it is not reset
+            txn.renew();
+            txn.close();
+        }
+        idleReadTxns.clear();
+        sharedIdleReadTxns.clear();
         env.close();
+        if (metricsName != null) {
+            unregister(objectName("type=Environment"));
+            collectionMetrics.keySet().forEach(name -> unregister(collectionObjectName(name)));
+        }
+    }
+
+    //the same instance for every collection opened under a name, DISABLED unless the builder enabled metrics
+    public CollectionMetrics collectionMetrics(String name) {
+        if (metricsName == null) {
+            return CollectionMetrics.DISABLED;
+        }
+        return collectionMetrics.computeIfAbsent(name, n -> {
+            CollectionMetrics collection = new CollectionMetrics();
+            register(collectionObjectName(n), collection);
+            return collection;
+        });
+    }
+
+    public EnvironmentMetrics metrics() {
+        return metrics;
+    }
+
+    private ObjectName collectionObjectName(String name) {
+        return objectName("type=Collection,collection=" + ObjectName.quote(name));
+    }
+
+    private ObjectName objectName(String properties) {
+        try {
+            return new ObjectName("jheister.lmdbcollections:env=" + ObjectName.quote(metricsName) + "," + properties);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static void register(ObjectName name, Object mbean) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, name);
+        } catch (JMException e) {
+            throw new RuntimeException("Could not register " + name, e);
+        }
+    }
+
+    private static void unregister(ObjectName name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            throw new RuntimeException("Could not unregister " + name, e);
+        }
     }
 
     public static LmdbStorageEnvironment create(File path, int maxCollections, long maxTotalSize) {
-        return new LmdbStorageEnvironment(Env.create()
-                .setMapSize(maxTotalSize)
-                .setMaxDbs(maxCollections)
-                .open(path));
+        return builder()
+                .setMaxCollections(maxCollections)
+                .setMaxTotalSize(maxTotalSize)
+                .open(path);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    //runs the batch in a write txn and commits it. with auto-grow a batch that fills the map is aborted, the map
+    //grown and the batch run again, so it must only write through the given txn and be safe to repeat
+    public void writeAndCommit(Consumer<Transaction> batch) {
+        while (true) {
+            try (Transaction txn = txnWrite()) {
+                batch.accept(txn);
+                txn.commit();
+                return;
+            } catch (Env.MapFullException e) {
+                if (!growMap()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    //grows the map by the builder's factor once every open txn is closed, blocking new ones meanwhile. false when
+    //auto-grow is off, the map is already at its limit or the calling thread is in a txn, which would never close.
+    //an explicit txn the calling thread keeps open deadlocks it
+    public boolean growMap() {
+        if (growthFactor == 0 || threadLocalTransaction.isBound()) {
+            return false;
+        }
+        long start = metrics.start();
+        resizeLock.lock();
+        try {
+            while (resizing) {
+                resizeGate.awaitUninterruptibly();
+            }
+            resizing = true;
+            while (openTxns > 0) {
+                resizeGate.awaitUninterruptibly();
+            }
+            long current = env.info().mapSize;
+            if (current >= maxGrownSize) {
+                return false;
+            }
+            env.setMapSize(Math.min(Math.max((long) (current * growthFactor), current + 1024 * 1024), maxGrownSize));
+        } finally {
+            resizing = false;
+            resizeGate.signalAll();
+            resizeLock.unlock();
+        }
+        metrics.record(metrics.mapGrowth, start);
+        return true;
+    }
+
+    private void enterTxn() {
+        if (growthFactor == 0) {
+            return;
+        }
+        resizeLock.lock();
+        try {
+            //a thread already in a txn holds up the resize anyway, so letting it nest one cannot race it
+            while (resizing && !threadLocalTransaction.isBound()) {
+                resizeGate.awaitUninterruptibly();
+            }
+            openTxns++;
+        } finally {
+            resizeLock.unlock();
+        }
+    }
+
+    private void exitTxn() {
+        if (growthFactor == 0) {
+            return;
+        }
+        resizeLock.lock();
+        try {
+            if (--openTxns == 0) {
+                resizeGate.signalAll();
+            }
+        } finally {
+            resizeLock.unlock();
+        }
     }
 
-    //todo: work out how to cache transaction objects / their buffers - count should match max transactions
     public Transaction txnWrite() {
-        Transaction txn = new Transaction(env.txnWrite(), ByteBuffer.allocateDirect(LMDB_MAX_KEY), ByteBuffer.allocateDirect(MAX_VALUE_SIZE), this::checkin);
+        Transaction txn = explicitTxnWrite();
         threadLocalTransaction.set(txn);
         return txn;
     }
 
     public Transaction txnRead() {
-        Transaction txn = new Transaction(env.txnRead(), ByteBuffer.allocateDirect(LMDB_MAX_KEY), ByteBuffer.allocateDirect(MAX_VALUE_SIZE), this::checkin);
+        Transaction txn = explicitTxnRead();
         threadLocalTransaction.set(txn);
         return txn;
     }
 
-    //todo: cleanup threadlocal handling
+    //not bound to the calling thread, so only usable through the collection overloads taking a Transaction.
+    //lmdb still requires a write txn to be committed or aborted on the thread that opened it
+    public Transaction explicitTxnWrite() {
+        long start = metrics.start();
+        enterTxn();
+        Transaction txn = transactionPool.checkout(beginOrExit(env::txnWrite));
+        metrics.record(metrics.writeTxnOpen, start);
+        txn.metrics = metrics;
+        txn.openedAt = metrics.start();
+        return txn;
+    }
+
+    //not bound to the calling thread, so only usable through the collection overloads taking a Transaction.
+    //without MDB_NOTLS (see Builder.noTls()) it must not be used by other threads while open
+    public Transaction explicitTxnRead() {
+        long start = metrics.start();
+        enterTxn();
+        Transaction txn = transactionPool.checkout(beginOrExit(reuseReadTransactions ? this::renewOrBeginRead : env::txnRead));
+        metrics.record(metrics.readTxnOpen, start);
+        txn.metrics = metrics;
+        txn.noTls = noTls;
+        return txn;
+    }
+
+    private Txn<ByteBuffer> beginOrExit(Supplier<Txn<ByteBuffer>> begin) {
+        try {
+            return begin.get();
+        } catch (RuntimeException e) {
+            exitTxn();
+            throw e;
+        }
+    }
+
+    private Txn<ByteBuffer> renewOrBeginRead() {
+        Txn<ByteBuffer> txn;
+        if (noTls) {
+            txn = sharedIdleReadTxns.poll();
+        } else {
+            txn = idleReadTxn.get();
+            idleReadTxn.set(null);
+        }
+        if (txn == null) {
+            return env.txnRead();
+        }
+        idleReadTxns.remove(txn);
+        txn.renew();
+        return txn;
+    }
+
     private void checkin(Transaction transaction) {
-        threadLocalTransaction.set(null);
+        //an explicit txn closed on a thread with a bound txn must not unbind it
+        if (threadLocalTransaction.isCurrent(transaction)) {
+            threadLocalTransaction.set(null);
+        }
+
+        Txn<ByteBuffer> txn = transaction.lmdbTxn();
+        if (!txn.isReadOnly()) {
+            metrics.record(metrics.writeTxnHeld, transaction.openedAt);
+        }
+        if (reuseReadTransactions && txn.isReadOnly() && park(txn, transaction.openedBy == Thread.currentThread())) {
+            idleReadTxns.add(txn);
+        } else {
+            txn.close();
+        }
+        transactionPool.checkin(transaction);
+        exitTxn();
+    }
+
+    private boolean park(Txn<ByteBuffer> txn, boolean openedOnThisThread) {
+        if (noTls) {
+            txn.reset();
+            sharedIdleReadTxns.add(txn);
+            return true;
+        }
+        //without MDB_NOTLS a reset txn keeps its reader slot so can only be renewed on the thread that opened it
+        if (openedOnThisThread && idleReadTxn.get() == null) {
+            txn.reset();
+            idleReadTxn.set(txn);
+            return true;
+        }
+        return false;
     }
 
     public List<Stats> stats() {
-        return Stream.concat(Stream.of(stats("", env.stat())), env.getDbiNames().stream()
-                .map(b -> {
-                    //todo: is it bad to open it again. Should probably be cached
-                    Dbi<ByteBuffer> db = env.openDbi(b);
-                    try (Txn<ByteBuffer> txn = env.txnRead()) {
-                        return stats(new String(b, UTF_8), db.stat(txn));
-                    } finally {
-                        db.close();
+        return environmentStats().collections;
+    }
+
+    //one read txn for the whole report, handles of the collections' dbis are opened once and kept
+    public EnvironmentStats environmentStats() {
+        Dbi<ByteBuffer> main = mainDbi();
+        while (true) {
+            List<Stats> collections = new ArrayList<>();
+            List<String> unopened = new ArrayList<>();
+            EnvInfo info;
+            try (Txn<ByteBuffer> txn = env.txnRead()) {
+                collections.add(stats("", main.stat(txn)));
+                try (CursorIterable<ByteBuffer> iterable = main.iterate(txn)) {
+                    for (CursorIterable.KeyVal<ByteBuffer> kv : iterable) {
+                        String name = UTF_8.decode(kv.key()).toString();
+                        Dbi<ByteBuffer> db = statsDbis.get(name);
+                        if (db == null) {
+                            unopened.add(name);
+                        } else if (unopened.isEmpty()) {
+                            collections.add(stats(name, db.stat(txn)));
+                        }
                     }
-                })).collect(toList());
+                }
+                info = env.info();
+            }
+            if (unopened.isEmpty()) {
+                return new EnvironmentStats(info.mapSize, collections.get(0).pageSize, info.lastPageNumber, info.lastTransactionId,
+                        info.maxReaders, info.numReaders, collections);
+            }
+            //opening a dbi takes a write txn of its own, so happens outside the read txn before trying again
+            unopened.forEach(this::statsDbi);
+        }
+    }
+
+    //lmdb hands out one handle per name and collections share it, so these are never closed
+    private Dbi<ByteBuffer> statsDbi(String name) {
+        return statsDbis.computeIfAbsent(name, env::openDbi);
+    }
+
+    private synchronized Dbi<ByteBuffer> mainDbi() {
+        if (mainDbi == null) {
+            mainDbi = env.openDbi((String) null);
+        }
+        return mainDbi;
     }
 
     private static Stats stats(String name, Stat stat) {
@@ -110,5 +525,75 @@ public class LmdbStorageEnvironment implements AutoCloseable {
         public void set(Transaction txn) {
             threadLocalTransaction.set(txn);
         }
+
+        boolean isBound() {
+            return threadLocalTransaction.get() != null;
+        }
+
+        boolean isCurrent(Transaction txn) {
+            return threadLocalTransaction.get() == txn;
+        }
+    }
+
+    public static class Builder {
+        private int maxCollections = 1;
+        private long maxTotalSize = 1024 * 1024;
+        private boolean reuseReadTransactions = false;
+        private boolean noTls = false;
+        private String metricsName = null;
+        private double growthFactor = 0;
+        private long maxGrownSize = 0;
+
+        private Builder() {
+        }
+
+        public Builder setMaxCollections(int maxCollections) {
+            this.maxCollections = maxCollections;
+            return this;
+        }
+
+        public Builder setMaxTotalSize(long maxTotalSize) {
+            this.maxTotalSize = maxTotalSize;
+            return this;
+        }
+
+        //closed read txns are reset rather than aborted and renewed by the next txnRead() on the same thread.
+        //every reading thread holds on to a reader slot until the env is closed
+        public Builder reuseReadTransactions() {
+            this.reuseReadTransactions = true;
+            return this;
+        }
+
+        //opens the env with MDB_NOTLS: read txns hold reader slots of their own instead of their thread's, so
+        //they can be handed between threads (one at a time) and reused read txns are shared by all threads
+        public Builder noTls() {
+            this.noTls = true;
+            return this;
+        }
+
+        //publishes EnvironmentMetrics and a CollectionMetrics per map, set, multimap and table as MXBeans under
+        //jheister.lmdbcollections:env=<name>. unregistered when the env is closed
+        public Builder enableMetrics(String name) {
+            this.metricsName = name;
+            return this;
+        }
+
+        //when a write fills the map, growMap() / writeAndCommit resize it by the factor up to maxTotalSize instead
+        //of failing. every txn then passes a lock on open and close and a resize waits for all of them to close
+        public Builder autoGrow(double growthFactor, long maxTotalSize) {
+            if (growthFactor <= 1) {
+                throw new IllegalArgumentException("Growth factor must be greater than 1");
+            }
+            this.growthFactor = growthFactor;
+            this.maxGrownSize = maxTotalSize;
+            return this;
+        }
+
+        public LmdbStorageEnvironment open(File path) {
+            return new LmdbStorageEnvironment(Env.create()
+                    .setMapSize(maxTotalSize)
+                    .setMaxDbs(maxCollections + 1)
+                    .open(path, noTls ? new EnvFlags[]{MDB_NOTLS} : new EnvFlags[0]), this);
+        }
     }
 }
@@ -3,14 +3,34 @@ package jheister.lmdbcollections;
 import jheister.lmdbcollections.codec.Codec;
 import org.lmdbjava.Txn;
 
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class Transaction implements AutoCloseable {
-    public final Txn<ByteBuffer> lmdbTxn;
+    //a value buffer grown past this is dropped when the txn goes back to the pool
+    private static final int MAX_RETAINED_VALUE_BUFFER = 1024 * 1024;
+
+    //null once closed, for good: the pool hands out a new Transaction around reused buffers
+    private Txn<ByteBuffer> lmdbTxn;
     public final ByteBuffer keyBuffer;
-    public final ByteBuffer valueBuffer;
+    //grows to fit larger values, so must be read from the txn again after serializing
+    public ByteBuffer valueBuffer;
     private final Consumer<Transaction> checkinFunction;
+    private final int initialValueBufferSize;
+    //without MDB_NOTLS a read txn's reader slot belongs to this thread
+    Thread openedBy;
+    //set for read txns of an MDB_NOTLS env, whose txns are not tied to a thread
+    boolean noTls;
+    EnvironmentMetrics metrics = EnvironmentMetrics.DISABLED;
+    long openedAt;
+    private List<Runnable> beforeCommit;
+    private Map<Object, Object> attachments;
 
     public Transaction(Txn<ByteBuffer> lmdbTxn,
                        ByteBuffer keyBuffer,
@@ -20,22 +40,101 @@ public class Transaction implements AutoCloseable {
         this.keyBuffer = keyBuffer;
         this.valueBuffer = valueBuffer;
         this.checkinFunction = checkinFunction;
+        this.initialValueBufferSize = valueBuffer.capacity();
+        this.openedBy = Thread.currentThread();
+    }
+
+    void detach() {
+        this.lmdbTxn = null;
+        this.openedBy = null;
+        this.noTls = false;
+        this.beforeCommit = null;
+        this.attachments = null;
+        if (valueBuffer.capacity() > MAX_RETAINED_VALUE_BUFFER) {
+            valueBuffer = ByteBuffer.allocateDirect(initialValueBufferSize);
+        }
+    }
+
+    //fails fast for a reference kept past close
+    public Txn<ByteBuffer> lmdbTxn() {
+        Txn<ByteBuffer> txn = lmdbTxn;
+        if (txn == null) {
+            throw new IllegalStateException("Transaction is closed");
+        }
+        return txn;
+    }
+
+    //lmdb lets a read txn be used by threads other than its own only with MDB_NOTLS (see Builder.noTls())
+    public boolean isReadableFromAnyThread() {
+        return noTls;
+    }
+
+    //runs just before the lmdb commit, on the committing thread. not run when the txn is aborted
+    public void beforeCommit(Runnable hook) {
+        if (beforeCommit == null) {
+            beforeCommit = new ArrayList<>();
+        }
+        beforeCommit.add(hook);
+    }
+
+    //state an owner (e.g. a collection wrapper) keeps for the life of this transaction
+    @SuppressWarnings("unchecked")
+    public <T> T attachment(Object owner, Function<Transaction, T> factory) {
+        if (attachments == null) {
+            attachments = new IdentityHashMap<>();
+        }
+        return (T) attachments.computeIfAbsent(owner, o -> factory.apply(this));
     }
 
     @Override
     public void close() {
+        if (lmdbTxn == null) {
+            return;
+        }
         checkinFunction.accept(this);
-        lmdbTxn.close();
     }
 
     public void commit() {
-        lmdbTxn.commit();
+        if (beforeCommit != null) {
+            for (Runnable hook : beforeCommit) {
+                hook.run();
+            }
+        }
+        long start = metrics.start();
+        lmdbTxn().commit();
+        metrics.record(metrics.commit, start);
     }
 
     public <V> void serializeValue(Codec<V> valueCodec, V value) {
-        valueBuffer.clear();
-        valueCodec.serialize(value, valueBuffer);
-        valueBuffer.flip();
+        valueBuffer = serializeGrowing(valueCodec, value, valueBuffer);
+    }
+
+    //serializes into the buffer, or into a larger one of the same kind when the value does not fit, and returns the
+    //buffer holding the flipped value
+    public static <V> ByteBuffer serializeGrowing(Codec<V> codec, V value, ByteBuffer buffer) {
+        int size = codec.encodedSize(value);
+        if (size > buffer.capacity()) {
+            buffer = allocateLike(buffer, size);
+        }
+        while (true) {
+            buffer.clear();
+            try {
+                codec.serialize(value, buffer);
+                break;
+            } catch (BufferOverflowException e) {
+                //size unknown up front, so serialize again into a buffer twice as big
+                if (buffer.capacity() >= Integer.MAX_VALUE / 2) {
+                    throw e;
+                }
+                buffer = allocateLike(buffer, buffer.capacity() * 2);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static ByteBuffer allocateLike(ByteBuffer buffer, int capacity) {
+        return buffer.isDirect() ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
     }
 
     public <K> void serializeKey(Codec<K> keyCodec, K key) {
@@ -0,0 +1,38 @@
+package jheister.lmdbcollections;
+
+import org.lmdbjava.Txn;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+class TransactionPool {
+    private final BlockingQueue<Transaction> idle;
+    private final int keyBufferSize;
+    private final int valueBufferSize;
+    private final Consumer<Transaction> checkinFunction;
+
+    TransactionPool(int capacity, int keyBufferSize, int valueBufferSize, Consumer<Transaction> checkinFunction) {
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.keyBufferSize = keyBufferSize;
+        this.valueBufferSize = valueBufferSize;
+        this.checkinFunction = checkinFunction;
+    }
+
+    //only the buffers are reused: every checkout gets a fresh handle, so a reference kept past close stays closed
+    //instead of reaching whichever txn the pool handed out since
+    Transaction checkout(Txn<ByteBuffer> lmdbTxn) {
+        Transaction retired = idle.poll();
+        if (retired == null) {
+            return new Transaction(lmdbTxn, ByteBuffer.allocateDirect(keyBufferSize), ByteBuffer.allocateDirect(valueBufferSize), checkinFunction);
+        }
+        return new Transaction(lmdbTxn, retired.keyBuffer, retired.valueBuffer, checkinFunction);
+    }
+
+    void checkin(Transaction txn) {
+        txn.detach();
+        //when more transactions than the pool holds were open at once the surplus is left for GC
+        idle.offer(txn);
+    }
+}
@@ -0,0 +1,73 @@
+package jheister.lmdbcollections.codec;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+//flyweight over a value in lmdb's memory map. wrapping records the bounds of the buffer without copying,
+//so one view can be reused for every read instead of deserializing.
+//lmdb keeps the bytes valid for the life of a read transaction (and until the next write in a write
+//transaction), but the ByteBuffer handed out by the transaction is repointed by its next read, so a view
+//is only valid until the next read through the same transaction
+public class BufferView {
+    protected ByteBuffer buffer;
+    protected int offset;
+    protected int length;
+
+    public void wrap(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.offset = buffer.position();
+        this.length = buffer.remaining();
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public byte getByte(int index) {
+        return buffer.get(offset + checkIndex(index, 1));
+    }
+
+    public int getInt(int index) {
+        return buffer.getInt(offset + checkIndex(index, 4));
+    }
+
+    public long getLong(int index) {
+        return buffer.getLong(offset + checkIndex(index, 8));
+    }
+
+    public double getDouble(int index) {
+        return buffer.getDouble(offset + checkIndex(index, 8));
+    }
+
+    public boolean contentEquals(byte[] bytes) {
+        if (bytes.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(offset + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public byte[] toBytes() {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return bytes;
+    }
+
+    private int checkIndex(int index, int size) {
+        if (index < 0 || index + size > length) {
+            throw new IndexOutOfBoundsException("Index " + index + " with size " + size + " outside view of length " + length);
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toBytes());
+    }
+}
@@ -0,0 +1,23 @@
+package jheister.lmdbcollections.codec;
+
+import java.nio.ByteBuffer;
+
+//the bytes as they are, so keys sort by unsigned lexicographic order under memcmp
+public class BytesCodec implements Codec<byte[]> {
+    @Override
+    public byte[] deserialize(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public void serialize(byte[] value, ByteBuffer target) {
+        target.put(value);
+    }
+
+    @Override
+    public int encodedSize(byte[] value) {
+        return value.length;
+    }
+}
@@ -8,6 +8,19 @@ public interface Codec<T> {
 
     Codec<Integer> INTEGER_CODEC = new IntegerCodec();
 
+    Codec<byte[]> BYTES_CODEC = new BytesCodec();
+
+    //encodings whose byte order matches their natural order so lmdb can compare keys without calling into java
+    Codec<Integer> ORDERED_INTEGER_CODEC = new OrderedIntegerCodec(true);
+
+    Codec<Integer> UNSIGNED_INTEGER_CODEC = new OrderedIntegerCodec(false);
+
+    Codec<Long> ORDERED_LONG_CODEC = new OrderedLongCodec(true);
+
+    Codec<Long> UNSIGNED_LONG_CODEC = new OrderedLongCodec(false);
+
+    Codec<Double> ORDERED_DOUBLE_CODEC = new OrderedDoubleCodec();
+
     Codec<Empty> EMPTY_CODEC = new Codec<>() {
         @Override
         public Empty deserialize(ByteBuffer buffer) {
@@ -17,6 +30,11 @@ public interface Codec<T> {
         @Override
         public void serialize(Empty value, ByteBuffer target) {
         }
+
+        @Override
+        public int encodedSize(Empty value) {
+            return 0;
+        }
     };
 
     interface Empty {
@@ -27,11 +45,37 @@ public interface Codec<T> {
 
     void serialize(T value, ByteBuffer target);
 
+    //exact number of bytes serialize will write, or -1 when that is not known without serializing. a known size
+    //lets a value be serialized straight into the page lmdb reserves for it
+    default int encodedSize(T value) {
+        return -1;
+    }
+
     default Comparator<ByteBuffer> comparator() {
         return null;
     }
 
     default Codec<T> reverseOrder() {
+        if (comparator() == null) {
+            return new Codec<T>() {
+                @Override
+                public T deserialize(ByteBuffer buffer) {
+                    return Codec.this.deserialize(OrderedBytes.unescape(buffer, true));
+                }
+
+                @Override
+                public void serialize(T value, ByteBuffer target) {
+                    int start = target.position();
+                    Codec.this.serialize(value, target);
+                    OrderedBytes.escape(target, start, true);
+                }
+
+                @Override
+                public Codec<T> reverseOrder() {
+                    return Codec.this;
+                }
+            };
+        }
         return new Codec<T>() {
             @Override
             public T deserialize(ByteBuffer buffer) {
@@ -43,6 +87,11 @@ public interface Codec<T> {
                 Codec.this.serialize(value, target);
             }
 
+            @Override
+            public int encodedSize(T value) {
+                return Codec.this.encodedSize(value);
+            }
+
             @Override
             public Comparator<ByteBuffer> comparator() {
                 return Codec.this.comparator().reversed();
@@ -62,6 +111,11 @@ public interface Codec<T> {
                 Codec.this.serialize(value, target);
             }
 
+            @Override
+            public int encodedSize(T value) {
+                return Codec.this.encodedSize(value);
+            }
+
             @Override
             public Comparator<ByteBuffer> comparator() {
                 return (o1, o2) -> {
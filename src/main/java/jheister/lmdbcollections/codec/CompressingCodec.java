@@ -0,0 +1,177 @@
+package jheister.lmdbcollections.codec;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+//deflates the wrapped codec's encoding using the newest preset dictionary. every value records the version of the
+//dictionary it was written with, so values written before a newer one was trained still decode. for values only:
+//the compressed bytes do not sort like the wrapped encoding. see LmdbStorageEnvironment.compressingCodec for
+//dictionaries kept in the env
+public class CompressingCodec<T> implements Codec<T> {
+    public static final int MAX_VERSION = 0x7F;
+    //set in the header byte when deflating did not make the value smaller so it is stored as is
+    private static final int STORED = 0x80;
+
+    private final String name;
+    private final Codec<T> codec;
+    private final AtomicReferenceArray<byte[]> dictionaries = new AtomicReferenceArray<>(MAX_VERSION + 1);
+    private final ThreadLocal<Scratch> scratch;
+    private volatile int currentVersion = 0;
+
+    public CompressingCodec(String name, Codec<T> codec) {
+        this(name, codec, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public CompressingCodec(String name, Codec<T> codec, int level) {
+        this.name = name;
+        this.codec = codec;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(level));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Codec<T> codec() {
+        return codec;
+    }
+
+    //version 0 means no dictionary
+    public int currentVersion() {
+        return currentVersion;
+    }
+
+    //the newest version is used for writes from now on
+    public synchronized void addDictionary(int version, byte[] dictionary) {
+        if (version < 1 || version > MAX_VERSION) {
+            throw new IllegalArgumentException("Dictionary version must be between 1 and " + MAX_VERSION + " but was " + version);
+        }
+        dictionaries.set(version, dictionary);
+        if (version > currentVersion) {
+            currentVersion = version;
+        }
+    }
+
+    //the wrapped codec's encoding, as a dictionary is trained on
+    public byte[] uncompressed(T value) {
+        Scratch s = scratch.get();
+        return Arrays.copyOf(s.raw.array(), s.encode(codec, value));
+    }
+
+    @Override
+    public void serialize(T value, ByteBuffer target) {
+        Scratch s = scratch.get();
+        int rawLength = s.encode(codec, value);
+        int version = currentVersion;
+
+        Deflater deflater = s.deflater;
+        deflater.reset();
+        if (version != 0) {
+            deflater.setDictionary(dictionaries.get(version));
+        }
+        deflater.setInput(s.raw.array(), 0, rawLength);
+        deflater.finish();
+        byte[] out = s.output(rawLength);
+        int compressedLength = 0;
+        while (!deflater.finished() && compressedLength < rawLength) {
+            compressedLength += deflater.deflate(out, compressedLength, rawLength - compressedLength);
+        }
+
+        if (!deflater.finished()) {
+            target.put((byte) STORED);
+            target.put(s.raw.array(), 0, rawLength);
+            return;
+        }
+        target.put((byte) version);
+        VarInts.put(target, rawLength);
+        target.put(out, 0, compressedLength);
+    }
+
+    @Override
+    public T deserialize(ByteBuffer buffer) {
+        int header = buffer.get() & 0xFF;
+        if ((header & STORED) != 0) {
+            return codec.deserialize(buffer);
+        }
+        byte[] dictionary = null;
+        if (header != 0) {
+            dictionary = dictionaries.get(header);
+            if (dictionary == null) {
+                throw new IllegalStateException("Unknown dictionary version " + header + " for " + name);
+            }
+        }
+        int rawLength = VarInts.get(buffer);
+
+        Scratch s = scratch.get();
+        byte[] in = s.input(buffer.remaining());
+        int compressedLength = buffer.remaining();
+        buffer.get(in, 0, compressedLength);
+        Inflater inflater = s.inflater;
+        inflater.reset();
+        if (dictionary != null) {
+            inflater.setDictionary(dictionary);
+        }
+        inflater.setInput(in, 0, compressedLength);
+        byte[] out = s.output(rawLength);
+        try {
+            int inflated = 0;
+            while (inflated < rawLength) {
+                int n = inflater.inflate(out, inflated, rawLength - inflated);
+                if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated value for " + name);
+                }
+                inflated += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt value for " + name, e);
+        }
+        return codec.deserialize(ByteBuffer.wrap(out, 0, rawLength));
+    }
+
+    private static class Scratch {
+        final Deflater deflater;
+        final Inflater inflater = new Inflater(true);
+        ByteBuffer raw = ByteBuffer.allocate(4096);
+        byte[] input = new byte[4096];
+        byte[] output = new byte[4096];
+
+        Scratch(int level) {
+            this.deflater = new Deflater(level, true);
+        }
+
+        <T> int encode(Codec<T> codec, T value) {
+            int size = codec.encodedSize(value);
+            if (size > raw.capacity()) {
+                raw = ByteBuffer.allocate(size);
+            }
+            while (true) {
+                raw.clear();
+                try {
+                    codec.serialize(value, raw);
+                    return raw.position();
+                } catch (BufferOverflowException e) {
+                    raw = ByteBuffer.allocate(raw.capacity() * 2);
+                }
+            }
+        }
+
+        byte[] input(int size) {
+            if (input.length < size) {
+                input = new byte[size];
+            }
+            return input;
+        }
+
+        byte[] output(int size) {
+            if (output.length < size) {
+                output = new byte[size];
+            }
+            return output;
+        }
+    }
+}
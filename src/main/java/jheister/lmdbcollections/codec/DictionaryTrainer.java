@@ -0,0 +1,121 @@
+package jheister.lmdbcollections.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+//builds a deflate preset dictionary from sample values: picks the segments of the samples covering the most k-mers
+//that recur across samples, re-scoring lazily so a k-mer only counts for the first segment chosen with it.
+//deflate prefers short match distances, so the most valuable segments go at the end of the dictionary
+public class DictionaryTrainer {
+    //deflate cannot refer back further than its 32KB window
+    public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+    private static final int K = 6;
+    private static final int SEGMENT = 32;
+
+    private DictionaryTrainer() {
+    }
+
+    public static byte[] train(List<byte[]> samples, int dictionarySize) {
+        int size = Math.min(dictionarySize, MAX_DICTIONARY_SIZE);
+        Map<Long, int[]> frequencies = new HashMap<>();
+        for (byte[] sample : samples) {
+            Set<Long> seen = new HashSet<>();
+            for (int i = 0; i + K <= sample.length; i++) {
+                long kmer = kmer(sample, i);
+                if (seen.add(kmer)) {
+                    frequencies.computeIfAbsent(kmer, k -> new int[1])[0]++;
+                }
+            }
+        }
+
+        PriorityQueue<Segment> candidates = new PriorityQueue<>((a, b) -> Long.compare(b.score, a.score));
+        for (byte[] sample : samples) {
+            //half overlapping so a run of common bytes is not always cut in two
+            for (int start = 0; start < sample.length; start += SEGMENT / 2) {
+                Segment segment = new Segment(sample, start, Math.min(start + SEGMENT, sample.length));
+                segment.score = segment.score(frequencies);
+                if (segment.score > 0) {
+                    candidates.add(segment);
+                }
+            }
+        }
+
+        List<Segment> selected = new ArrayList<>();
+        int total = 0;
+        while (total < size && !candidates.isEmpty()) {
+            Segment best = candidates.poll();
+            long score = best.score(frequencies);
+            if (score <= 0) {
+                continue;
+            }
+            if (!candidates.isEmpty() && score < candidates.peek().score) {
+                best.score = score;
+                candidates.add(best);
+                continue;
+            }
+            selected.add(best);
+            total += best.end - best.start;
+            best.consume(frequencies);
+        }
+
+        ByteArrayOutputStream dictionary = new ByteArrayOutputStream(total);
+        for (int i = selected.size() - 1; i >= 0; i--) {
+            Segment segment = selected.get(i);
+            dictionary.write(segment.sample, segment.start, segment.end - segment.start);
+        }
+        byte[] bytes = dictionary.toByteArray();
+        if (bytes.length <= size) {
+            return bytes;
+        }
+        byte[] trimmed = new byte[size];
+        System.arraycopy(bytes, bytes.length - size, trimmed, 0, size);
+        return trimmed;
+    }
+
+    private static long kmer(byte[] bytes, int start) {
+        long kmer = 0;
+        for (int i = start; i < start + K; i++) {
+            kmer = (kmer << 8) | (bytes[i] & 0xFF);
+        }
+        return kmer;
+    }
+
+    private static class Segment {
+        final byte[] sample;
+        final int start;
+        final int end;
+        long score;
+
+        Segment(byte[] sample, int start, int end) {
+            this.sample = sample;
+            this.start = start;
+            this.end = end;
+        }
+
+        //k-mers seen in only one sample do not help compress other values
+        long score(Map<Long, int[]> frequencies) {
+            long score = 0;
+            Set<Long> counted = new HashSet<>();
+            for (int i = start; i + K <= end; i++) {
+                long kmer = kmer(sample, i);
+                int frequency = frequencies.get(kmer)[0];
+                if (frequency > 1 && counted.add(kmer)) {
+                    score += frequency;
+                }
+            }
+            return score;
+        }
+
+        void consume(Map<Long, int[]> frequencies) {
+            for (int i = start; i + K <= end; i++) {
+                frequencies.get(kmer(sample, i))[0] = 0;
+            }
+        }
+    }
+}
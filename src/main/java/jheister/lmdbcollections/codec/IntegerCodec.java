@@ -16,6 +16,11 @@ public class IntegerCodec implements Codec<Integer> {
         target.putInt(value);
     }
 
+    @Override
+    public int encodedSize(Integer value) {
+        return Integer.BYTES;
+    }
+
     @Override
     public Comparator<ByteBuffer> comparator() {
         return comparingInt(ByteBuffer::getInt);
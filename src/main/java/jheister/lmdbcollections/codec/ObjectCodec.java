@@ -0,0 +1,515 @@
+package jheister.lmdbcollections.codec;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.invoke.MethodType.methodType;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+//derives a codec for a record or a simple class from its fields. a codec class reading and writing the fields directly
+//is generated once (see ObjectCodecGenerator), with method handles looked up once as the fallback for members it
+//cannot reach, so encoding does no reflection and writes straight into the target. supported fields are
+//primitives, their boxes, strings, byte arrays and enums (by name). records are encoded by their components, other
+//classes by their non static, non transient fields with superclass fields first; those classes need a no-arg
+//constructor.
+//only types whose members are reachable from their own package get the generated codec: private fields or accessors
+//(e.g. a plain POJO with private fields) or a type in a module not opened to this library take the method handles,
+//which cost about twice as much per value, as do classes with final fields. make the fields package private and
+//non final for hand written speed; isGenerated() tells which way a codec went and generated() refuses the fallback.
+//values start with their field count, so fields can be added over time as long as they are added last: older values
+//decode with the new fields left at their defaults (the field initializers for classes, zero or null for records)
+//and fields a reader does not know yet are skipped
+public final class ObjectCodec<T> implements Codec<T> {
+    private static final ThreadLocal<byte[]> STRING_SCRATCH = ThreadLocal.withInitial(() -> new byte[256]);
+
+    private final Class<T> type;
+    private final Property[] properties;
+    //() -> Object for classes, (Object[]) -> Object taking all components for records
+    private final MethodHandle constructor;
+    private final boolean record;
+    //reads and writes values with all current fields, null when the fields cannot be reached from generated code
+    private final Codec<T> generated;
+
+    private ObjectCodec(Class<T> type, Property[] properties, MethodHandle constructor, boolean record, Member[] members, Constructor<T> javaConstructor) {
+        this.type = type;
+        this.properties = properties;
+        this.constructor = constructor;
+        this.record = record;
+        this.generated = ObjectCodecGenerator.generate(this, type, members, javaConstructor);
+    }
+
+    public static <T> ObjectCodec<T> of(Class<T> type) {
+        try {
+            Method[] accessors = recordAccessors(type);
+            return accessors != null ? forRecord(type, accessors) : forClass(type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot derive a codec for " + type.getName(), e);
+        }
+    }
+
+    //as of(), but fails rather than falling back to method handles when no codec class can be generated for the type
+    public static <T> ObjectCodec<T> generated(Class<T> type) {
+        ObjectCodec<T> codec = of(type);
+        if (!codec.isGenerated()) {
+            throw new IllegalArgumentException("Cannot generate a codec for " + type.getName()
+                    + ", its fields, accessors or constructor are private or final or its module is not open to this library");
+        }
+        return codec;
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    public boolean isGenerated() {
+        return generated != null;
+    }
+
+    @Override
+    public void serialize(T value, ByteBuffer target) {
+        VarInts.put(target, properties.length);
+        if (generated != null) {
+            generated.serialize(value, target);
+            return;
+        }
+        try {
+            for (Property property : properties) {
+                property.write(value, target);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to serialize " + type.getName(), e);
+        }
+    }
+
+    @Override
+    public T deserialize(ByteBuffer buffer) {
+        int stored = VarInts.get(buffer);
+        if (stored == properties.length && generated != null) {
+            return generated.deserialize(buffer);
+        }
+        int known = Math.min(stored, properties.length);
+        try {
+            Object value;
+            if (record) {
+                Object[] components = new Object[properties.length];
+                for (int i = 0; i < properties.length; i++) {
+                    components[i] = i < known ? properties[i].read(buffer) : properties[i].kind.zero;
+                }
+                value = (Object) constructor.invokeExact(components);
+            } else {
+                value = (Object) constructor.invokeExact();
+                for (int i = 0; i < known; i++) {
+                    properties[i].readInto(value, buffer);
+                }
+            }
+            if (stored > known) {
+                buffer.position(buffer.limit());
+            }
+            return type.cast(value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to deserialize " + type.getName(), e);
+        }
+    }
+
+    @Override
+    public int encodedSize(T value) {
+        int size = VarInts.size(properties.length);
+        try {
+            for (Property property : properties) {
+                size += property.size(value);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to size " + type.getName(), e);
+        }
+        return size;
+    }
+
+    //for generated codecs, which leave fields other than primitives to these to stay free of branches
+    public void writeField(int index, Object value, ByteBuffer target) {
+        properties[index].writeReference(value, target);
+    }
+
+    public Object readField(int index, ByteBuffer buffer) {
+        return properties[index].readReference(buffer);
+    }
+
+    //looked up reflectively as records are newer than the language level this is built for
+    private static Method[] recordAccessors(Class<?> type) throws ReflectiveOperationException {
+        Method isRecord;
+        try {
+            isRecord = Class.class.getMethod("isRecord");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        if (!(Boolean) isRecord.invoke(type)) {
+            return null;
+        }
+        Object[] components = (Object[]) Class.class.getMethod("getRecordComponents").invoke(type);
+        Method[] accessors = new Method[components.length];
+        for (int i = 0; i < components.length; i++) {
+            accessors[i] = (Method) components[i].getClass().getMethod("getAccessor").invoke(components[i]);
+        }
+        return accessors;
+    }
+
+    private static <T> ObjectCodec<T> forRecord(Class<T> type, Method[] accessors) throws ReflectiveOperationException {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Property[] properties = new Property[accessors.length];
+        Class<?>[] parameters = new Class<?>[accessors.length];
+        for (int i = 0; i < accessors.length; i++) {
+            accessors[i].setAccessible(true);
+            parameters[i] = accessors[i].getReturnType();
+            properties[i] = new Property(accessors[i].getName(), parameters[i], lookup.unreflect(accessors[i]), null);
+        }
+        Constructor<T> canonical = type.getDeclaredConstructor(parameters);
+        canonical.setAccessible(true);
+        MethodHandle constructor = lookup.unreflectConstructor(canonical)
+                .asSpreader(Object[].class, parameters.length)
+                .asType(methodType(Object.class, Object[].class));
+        return new ObjectCodec<>(type, properties, constructor, true, accessors, canonical);
+    }
+
+    private static <T> ObjectCodec<T> forClass(Class<T> type) throws ReflectiveOperationException {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.add(0, c);
+        }
+        List<Property> properties = new ArrayList<>();
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c : hierarchy) {
+            for (Field field : c.getDeclaredFields()) {
+                if ((field.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) != 0 || field.isSynthetic()) {
+                    continue;
+                }
+                field.setAccessible(true);
+                fields.add(field);
+                properties.add(new Property(field.getName(), field.getType(), lookup.unreflectGetter(field), lookup.unreflectSetter(field)));
+            }
+        }
+        Constructor<T> noArgs = type.getDeclaredConstructor();
+        noArgs.setAccessible(true);
+        MethodHandle constructor = lookup.unreflectConstructor(noArgs).asType(methodType(Object.class));
+        return new ObjectCodec<>(type, properties.toArray(new Property[0]), constructor, false, fields.toArray(new Member[0]), noArgs);
+    }
+
+    private enum Kind {
+        BOOLEAN(boolean.class, Boolean.class, false, 1),
+        BYTE(byte.class, Byte.class, (byte) 0, Byte.BYTES),
+        SHORT(short.class, Short.class, (short) 0, Short.BYTES),
+        CHAR(char.class, Character.class, (char) 0, Character.BYTES),
+        INT(int.class, Integer.class, 0, Integer.BYTES),
+        LONG(long.class, Long.class, 0L, Long.BYTES),
+        FLOAT(float.class, Float.class, 0f, Float.BYTES),
+        DOUBLE(double.class, Double.class, 0d, Double.BYTES),
+        //presence byte then the primitive encoding
+        BOXED(null, null, null, -1),
+        //varint of the utf-8 length plus one, zero meaning null, then the bytes
+        STRING(null, null, null, -1),
+        BYTES(null, null, null, -1),
+        ENUM(null, null, null, -1);
+
+        final Class<?> primitive;
+        final Class<?> box;
+        final Object zero;
+        final int size;
+
+        Kind(Class<?> primitive, Class<?> box, Object zero, int size) {
+            this.primitive = primitive;
+            this.box = box;
+            this.zero = zero;
+            this.size = size;
+        }
+
+        static Kind primitive(Class<?> type) {
+            for (Kind kind : values()) {
+                if (kind.primitive == type) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+
+        static Kind boxed(Class<?> type) {
+            for (Kind kind : values()) {
+                if (kind.box == type) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+    }
+
+    //handles are adapted to take the object as Object and a primitive or Object value so they can be invoked exactly
+    private static final class Property {
+        final String name;
+        final Kind kind;
+        //the primitive kind of a boxed field
+        final Kind boxed;
+        final Class<?> type;
+        final MethodHandle getter;
+        final MethodHandle setter;
+
+        Property(String name, Class<?> type, MethodHandle getter, MethodHandle setter) {
+            this.name = name;
+            this.type = type;
+            Kind primitive = Kind.primitive(type);
+            if (primitive != null) {
+                this.kind = primitive;
+                this.boxed = null;
+            } else if (Kind.boxed(type) != null) {
+                this.kind = Kind.BOXED;
+                this.boxed = Kind.boxed(type);
+            } else if (type == String.class) {
+                this.kind = Kind.STRING;
+                this.boxed = null;
+            } else if (type == byte[].class) {
+                this.kind = Kind.BYTES;
+                this.boxed = null;
+            } else if (type.isEnum()) {
+                this.kind = Kind.ENUM;
+                this.boxed = null;
+            } else {
+                throw new IllegalArgumentException("Unsupported type " + type.getName() + " of field " + name);
+            }
+            Class<?> valueType = primitive != null ? type : Object.class;
+            this.getter = getter.asType(methodType(valueType, Object.class));
+            this.setter = setter == null ? null : setter.asType(methodType(void.class, Object.class, valueType));
+        }
+
+        void write(Object object, ByteBuffer target) throws Throwable {
+            switch (kind) {
+                case BOOLEAN:
+                    target.put((boolean) getter.invokeExact(object) ? (byte) 1 : 0);
+                    return;
+                case BYTE:
+                    target.put((byte) getter.invokeExact(object));
+                    return;
+                case SHORT:
+                    target.putShort((short) getter.invokeExact(object));
+                    return;
+                case CHAR:
+                    target.putChar((char) getter.invokeExact(object));
+                    return;
+                case INT:
+                    target.putInt((int) getter.invokeExact(object));
+                    return;
+                case LONG:
+                    target.putLong((long) getter.invokeExact(object));
+                    return;
+                case FLOAT:
+                    target.putFloat((float) getter.invokeExact(object));
+                    return;
+                case DOUBLE:
+                    target.putDouble((double) getter.invokeExact(object));
+                    return;
+                default:
+                    writeReference((Object) getter.invokeExact(object), target);
+            }
+        }
+
+        int size(Object object) throws Throwable {
+            if (kind.size >= 0) {
+                return kind.size;
+            }
+            Object value = (Object) getter.invokeExact(object);
+            if (value == null) {
+                return 1;
+            }
+            switch (kind) {
+                case BOXED:
+                    return 1 + boxed.size;
+                case BYTES:
+                    return lengthPrefixed(((byte[]) value).length);
+                case ENUM:
+                    return lengthPrefixed(STRING_CODEC.encodedSize(((Enum<?>) value).name()));
+                default:
+                    return lengthPrefixed(STRING_CODEC.encodedSize((String) value));
+            }
+        }
+
+        Object read(ByteBuffer buffer) {
+            return kind.size >= 0 ? readPrimitive(kind, buffer) : readReference(buffer);
+        }
+
+        void readInto(Object object, ByteBuffer buffer) throws Throwable {
+            switch (kind) {
+                case BOOLEAN:
+                    setter.invokeExact(object, buffer.get() != 0);
+                    return;
+                case BYTE:
+                    setter.invokeExact(object, buffer.get());
+                    return;
+                case SHORT:
+                    setter.invokeExact(object, buffer.getShort());
+                    return;
+                case CHAR:
+                    setter.invokeExact(object, buffer.getChar());
+                    return;
+                case INT:
+                    setter.invokeExact(object, buffer.getInt());
+                    return;
+                case LONG:
+                    setter.invokeExact(object, buffer.getLong());
+                    return;
+                case FLOAT:
+                    setter.invokeExact(object, buffer.getFloat());
+                    return;
+                case DOUBLE:
+                    setter.invokeExact(object, buffer.getDouble());
+                    return;
+                default:
+                    setter.invokeExact(object, readReference(buffer));
+            }
+        }
+
+        private void writeReference(Object value, ByteBuffer target) {
+            if (kind == Kind.BOXED) {
+                if (value == null) {
+                    target.put((byte) 0);
+                    return;
+                }
+                target.put((byte) 1);
+                writeBoxed(value, target);
+            } else if (value == null) {
+                VarInts.put(target, 0);
+            } else if (kind == Kind.BYTES) {
+                byte[] bytes = (byte[]) value;
+                VarInts.put(target, bytes.length + 1);
+                target.put(bytes);
+            } else {
+                String string = kind == Kind.ENUM ? ((Enum<?>) value).name() : (String) value;
+                VarInts.put(target, STRING_CODEC.encodedSize(string) + 1);
+                putUtf8(string, target);
+            }
+        }
+
+        private void writeBoxed(Object value, ByteBuffer target) {
+            switch (boxed) {
+                case BOOLEAN:
+                    target.put((Boolean) value ? (byte) 1 : 0);
+                    return;
+                case BYTE:
+                    target.put((Byte) value);
+                    return;
+                case SHORT:
+                    target.putShort((Short) value);
+                    return;
+                case CHAR:
+                    target.putChar((Character) value);
+                    return;
+                case INT:
+                    target.putInt((Integer) value);
+                    return;
+                case LONG:
+                    target.putLong((Long) value);
+                    return;
+                case FLOAT:
+                    target.putFloat((Float) value);
+                    return;
+                default:
+                    target.putDouble((Double) value);
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Object readReference(ByteBuffer buffer) {
+            if (kind == Kind.BOXED) {
+                if (buffer.get() == 0) {
+                    return null;
+                }
+                return readPrimitive(boxed, buffer);
+            }
+            int length = VarInts.get(buffer) - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (kind == Kind.BYTES) {
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                return bytes;
+            }
+            String string = getUtf8(buffer, length);
+            return kind == Kind.ENUM ? Enum.valueOf((Class) type, string) : string;
+        }
+
+        private static Object readPrimitive(Kind kind, ByteBuffer buffer) {
+            switch (kind) {
+                case BOOLEAN:
+                    return buffer.get() != 0;
+                case BYTE:
+                    return buffer.get();
+                case SHORT:
+                    return buffer.getShort();
+                case CHAR:
+                    return buffer.getChar();
+                case INT:
+                    return buffer.getInt();
+                case LONG:
+                    return buffer.getLong();
+                case FLOAT:
+                    return buffer.getFloat();
+                default:
+                    return buffer.getDouble();
+            }
+        }
+
+        private static int lengthPrefixed(int length) {
+            return VarInts.size(length + 1) + length;
+        }
+    }
+
+    //the same bytes as String.getBytes(UTF_8), which replaces unpaired surrogates with '?', without the array
+    private static void putUtf8(String value, ByteBuffer target) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                target.put((byte) c);
+            } else if (c < 0x800) {
+                target.put((byte) (0xC0 | (c >> 6)));
+                target.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                target.put((byte) (0xF0 | (codePoint >> 18)));
+                target.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                target.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                target.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                target.put((byte) '?');
+            } else {
+                target.put((byte) (0xE0 | (c >> 12)));
+                target.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                target.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    private static String getUtf8(ByteBuffer buffer, int length) {
+        if (buffer.hasArray()) {
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        byte[] scratch = STRING_SCRATCH.get();
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+            STRING_SCRATCH.set(scratch);
+        }
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, UTF_8);
+    }
+}
@@ -0,0 +1,397 @@
+package jheister.lmdbcollections.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//writes the class of a Codec that reads and writes the fields of an ObjectCodec's type directly, the way a hand
+//written codec would, so the jit can inline everything. it is defined next to the type to get at package private
+//members and only handles values with all current fields: ObjectCodec writes the field count and handles older and
+//newer values itself. references go through ObjectCodec.writeField and readField to keep the generated code free
+//of branches, which spares it the stack map frames branches would need.
+//returns null when the type's members or its class loader cannot be reached from a class in its package, in which
+//case ObjectCodec falls back to its method handles. anything failing once the type is reachable is a bug in the
+//class written here and is thrown rather than hidden behind the slower fallback
+final class ObjectCodecGenerator {
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    private static final int JAVA_9 = 53;
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final String BUFFER = "java/nio/ByteBuffer";
+    private static final String CODEC = internalName(Codec.class);
+    private static final String OBJECT_CODEC = internalName(ObjectCodec.class);
+
+    private ObjectCodecGenerator() {
+    }
+
+    //members are the fields of a class or the accessor methods of a record, constructor takes no arguments for a class
+    //and all components for a record
+    static <T> Codec<T> generate(ObjectCodec<T> owner, Class<T> type, Member[] members, Constructor<T> constructor) {
+        if (!reachable(type, members, constructor)) {
+            return null;
+        }
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException | SecurityException e) {
+            //the type's module does not open its package to this one
+            return null;
+        }
+        String name = internalName(type) + "$$ObjectCodec" + COUNTER.incrementAndGet();
+        try {
+            byte[] bytes = new ObjectCodecGenerator.ClassWriter(name, type, members, constructor).write();
+            Class<?> generated = lookup.defineClass(bytes);
+            @SuppressWarnings("unchecked")
+            Codec<T> codec = (Codec<T>) generated.getConstructor(ObjectCodec.class).newInstance(owner);
+            return codec;
+        } catch (ReflectiveOperationException | IOException | LinkageError e) {
+            throw new IllegalStateException("Generated codec for " + type.getName() + " is broken", e);
+        }
+    }
+
+    private static boolean reachable(Class<?> type, Member[] members, Constructor<?> constructor) {
+        try {
+            if (Class.forName(ObjectCodec.class.getName(), false, type.getClassLoader()) != ObjectCodec.class) {
+                return false;
+            }
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+        if (!reachable(type, constructor)) {
+            return false;
+        }
+        for (Member member : members) {
+            Class<?> valueType = valueType(member);
+            while (valueType.isArray()) {
+                valueType = valueType.getComponentType();
+            }
+            if (!reachable(type, member) || !(valueType.isPrimitive() || Modifier.isPublic(valueType.getModifiers()) || samePackage(type, valueType))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean reachable(Class<?> type, Member member) {
+        int modifiers = member.getModifiers();
+        //decoding a class assigns its fields after the no-arg constructor, which putfield may not do to a final field
+        if (Modifier.isPrivate(modifiers) || member instanceof Field && Modifier.isFinal(modifiers)) {
+            return false;
+        }
+        return Modifier.isPublic(modifiers) && Modifier.isPublic(member.getDeclaringClass().getModifiers())
+                || samePackage(type, member.getDeclaringClass());
+    }
+
+    private static boolean samePackage(Class<?> a, Class<?> b) {
+        return a.getClassLoader() == b.getClassLoader() && a.getPackageName().equals(b.getPackageName());
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static String descriptor(Class<?> type) {
+        if (type.isPrimitive()) {
+            switch (type.getName()) {
+                case "boolean": return "Z";
+                case "byte": return "B";
+                case "short": return "S";
+                case "char": return "C";
+                case "int": return "I";
+                case "long": return "J";
+                case "float": return "F";
+                case "double": return "D";
+                default: return "V";
+            }
+        }
+        return type.isArray() ? internalName(type) : "L" + internalName(type) + ";";
+    }
+
+    private static Class<?> valueType(Member member) {
+        return member instanceof Field ? ((Field) member).getType() : ((Method) member).getReturnType();
+    }
+
+    //ByteBuffer's accessor for a primitive, put and get share the suffix
+    private static String bufferSuffix(Class<?> type) {
+        if (type == boolean.class || type == byte.class) {
+            return "";
+        }
+        String name = type.getName();
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static final class ClassWriter {
+        private static final int ALOAD_0 = 0x2A;
+        private static final int ALOAD_1 = 0x2B;
+        private static final int ALOAD_2 = 0x2C;
+        private static final int ALOAD_3 = 0x2D;
+        private static final int ASTORE_2 = 0x4D;
+        private static final int ASTORE_3 = 0x4E;
+        private static final int BIPUSH = 0x10;
+        private static final int SIPUSH = 0x11;
+        private static final int POP = 0x57;
+        private static final int DUP = 0x59;
+        private static final int RETURN = 0xB1;
+        private static final int ARETURN = 0xB0;
+        private static final int GETFIELD = 0xB4;
+        private static final int PUTFIELD = 0xB5;
+        private static final int INVOKEVIRTUAL = 0xB6;
+        private static final int INVOKESPECIAL = 0xB7;
+        private static final int NEW = 0xBB;
+        private static final int CHECKCAST = 0xC0;
+
+        private final String name;
+        private final Class<?> type;
+        private final Member[] members;
+        private final Constructor<?> constructor;
+        private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        private final DataOutputStream poolOut = new DataOutputStream(pool);
+        private final Map<String, Integer> constants = new HashMap<>();
+        private int nextConstant = 1;
+
+        ClassWriter(String name, Class<?> type, Member[] members, Constructor<?> constructor) {
+            this.name = name;
+            this.type = type;
+            this.members = members;
+            this.constructor = constructor;
+        }
+
+        byte[] write() throws IOException {
+            //the pool has to be complete before it is written, so the body goes first
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(body);
+            out.writeShort(Modifier.PUBLIC | Modifier.FINAL | 0x0020 | 0x1000);
+            out.writeShort(classRef(name));
+            out.writeShort(classRef(OBJECT));
+            out.writeShort(1);
+            out.writeShort(classRef(CODEC));
+
+            out.writeShort(1);
+            out.writeShort(Modifier.PRIVATE | Modifier.FINAL);
+            out.writeShort(utf8("owner"));
+            out.writeShort(utf8("L" + OBJECT_CODEC + ";"));
+            out.writeShort(0);
+
+            out.writeShort(3);
+            method(out, Modifier.PUBLIC, "<init>", "(L" + OBJECT_CODEC + ";)V", 2, 2, init());
+            method(out, Modifier.PUBLIC, "serialize", "(L" + OBJECT + ";L" + BUFFER + ";)V", 8, 4, serialize());
+            method(out, Modifier.PUBLIC, "deserialize", "(L" + BUFFER + ";)L" + OBJECT + ";", deserializeStack(), 3, deserialize());
+            out.writeShort(0);
+
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            DataOutputStream header = new DataOutputStream(result);
+            header.writeInt(0xCAFEBABE);
+            header.writeShort(0);
+            header.writeShort(JAVA_9);
+            header.writeShort(nextConstant);
+            header.write(pool.toByteArray());
+            header.write(body.toByteArray());
+            return result.toByteArray();
+        }
+
+        private Code init() throws IOException {
+            Code code = new Code();
+            code.op(ALOAD_0).op(INVOKESPECIAL).u2(methodRef(OBJECT, "<init>", "()V"));
+            code.op(ALOAD_0).op(ALOAD_1).op(PUTFIELD).u2(fieldRef(name, "owner", "L" + OBJECT_CODEC + ";"));
+            return code.op(RETURN);
+        }
+
+        //locals: this, value, target, value cast to the type
+        private Code serialize() throws IOException {
+            Code code = new Code();
+            code.op(ALOAD_1).op(CHECKCAST).u2(classRef(internalName(type))).op(ASTORE_3);
+            for (int i = 0; i < members.length; i++) {
+                Class<?> valueType = valueType(members[i]);
+                if (valueType.isPrimitive()) {
+                    code.op(ALOAD_2);
+                    get(code, members[i]);
+                    code.op(INVOKEVIRTUAL).u2(methodRef(BUFFER, "put" + bufferSuffix(valueType), "(" + bufferDescriptor(valueType) + ")L" + BUFFER + ";"));
+                    code.op(POP);
+                } else {
+                    code.op(ALOAD_0).op(GETFIELD).u2(fieldRef(name, "owner", "L" + OBJECT_CODEC + ";"));
+                    index(code, i);
+                    get(code, members[i]);
+                    code.op(ALOAD_2);
+                    code.op(INVOKEVIRTUAL).u2(methodRef(OBJECT_CODEC, "writeField", "(IL" + OBJECT + ";L" + BUFFER + ";)V"));
+                }
+            }
+            return code.op(RETURN);
+        }
+
+        private void get(Code code, Member member) throws IOException {
+            code.op(ALOAD_3);
+            if (member instanceof Field) {
+                code.op(GETFIELD).u2(fieldRef(internalName(type), member.getName(), descriptor(valueType(member))));
+            } else {
+                code.op(INVOKEVIRTUAL).u2(methodRef(internalName(type), member.getName(), "()" + descriptor(valueType(member))));
+            }
+        }
+
+        //locals: this, buffer, the new object for classes
+        private Code deserialize() throws IOException {
+            Code code = new Code();
+            String typeName = internalName(type);
+            code.op(NEW).u2(classRef(typeName)).op(DUP);
+            if (constructor.getParameterCount() == 0) {
+                code.op(INVOKESPECIAL).u2(methodRef(typeName, "<init>", "()V")).op(ASTORE_2);
+                for (int i = 0; i < members.length; i++) {
+                    code.op(ALOAD_2);
+                    read(code, i);
+                    code.op(PUTFIELD).u2(fieldRef(typeName, members[i].getName(), descriptor(valueType(members[i]))));
+                }
+                return code.op(ALOAD_2).op(ARETURN);
+            }
+            StringBuilder parameters = new StringBuilder("(");
+            for (int i = 0; i < members.length; i++) {
+                read(code, i);
+                parameters.append(descriptor(valueType(members[i])));
+            }
+            code.op(INVOKESPECIAL).u2(methodRef(typeName, "<init>", parameters.append(")V").toString()));
+            return code.op(ARETURN);
+        }
+
+        private void read(Code code, int i) throws IOException {
+            Class<?> valueType = valueType(members[i]);
+            if (valueType.isPrimitive()) {
+                code.op(ALOAD_1).op(INVOKEVIRTUAL).u2(methodRef(BUFFER, "get" + bufferSuffix(valueType), "()" + bufferDescriptor(valueType)));
+            } else {
+                code.op(ALOAD_0).op(GETFIELD).u2(fieldRef(name, "owner", "L" + OBJECT_CODEC + ";"));
+                index(code, i);
+                code.op(ALOAD_1);
+                code.op(INVOKEVIRTUAL).u2(methodRef(OBJECT_CODEC, "readField", "(IL" + BUFFER + ";)L" + OBJECT + ";"));
+                code.op(CHECKCAST).u2(classRef(valueType.isArray() ? descriptor(valueType) : internalName(valueType)));
+            }
+        }
+
+        //new, dup and every constructor argument, plus owner, index and buffer for the call reading the last one
+        private int deserializeStack() {
+            int stack = 5;
+            for (Member member : members) {
+                Class<?> valueType = valueType(member);
+                stack += valueType == long.class || valueType == double.class ? 2 : 1;
+            }
+            return stack;
+        }
+
+        //booleans are written as a byte, which the jvm narrows to their lowest bit when storing them
+        private static String bufferDescriptor(Class<?> type) {
+            return type == boolean.class ? "B" : descriptor(type);
+        }
+
+        private static void index(Code code, int i) {
+            if (i <= Byte.MAX_VALUE) {
+                code.op(BIPUSH).u1(i);
+            } else {
+                code.op(SIPUSH).u2(i);
+            }
+        }
+
+        private void method(DataOutputStream out, int access, String methodName, String descriptor, int maxStack, int maxLocals, Code code) throws IOException {
+            out.writeShort(access);
+            out.writeShort(utf8(methodName));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(1);
+            out.writeShort(utf8("Code"));
+            byte[] bytes = code.bytes.toByteArray();
+            out.writeInt(12 + bytes.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+
+        private int utf8(String value) throws IOException {
+            Integer index = constants.get("U" + value);
+            if (index == null) {
+                poolOut.writeByte(1);
+                poolOut.writeUTF(value);
+                index = add("U" + value);
+            }
+            return index;
+        }
+
+        private int classRef(String internalName) throws IOException {
+            Integer index = constants.get("C" + internalName);
+            if (index == null) {
+                int nameIndex = utf8(internalName);
+                poolOut.writeByte(7);
+                poolOut.writeShort(nameIndex);
+                index = add("C" + internalName);
+            }
+            return index;
+        }
+
+        private int fieldRef(String owner, String fieldName, String descriptor) throws IOException {
+            return memberRef(9, owner, fieldName, descriptor);
+        }
+
+        private int methodRef(String owner, String methodName, String descriptor) throws IOException {
+            return memberRef(10, owner, methodName, descriptor);
+        }
+
+        private int memberRef(int tag, String owner, String memberName, String descriptor) throws IOException {
+            String key = "M" + tag + owner + "." + memberName + descriptor;
+            Integer index = constants.get(key);
+            if (index == null) {
+                int classIndex = classRef(owner);
+                int nameAndType = nameAndType(memberName, descriptor);
+                poolOut.writeByte(tag);
+                poolOut.writeShort(classIndex);
+                poolOut.writeShort(nameAndType);
+                index = add(key);
+            }
+            return index;
+        }
+
+        private int nameAndType(String memberName, String descriptor) throws IOException {
+            String key = "N" + memberName + descriptor;
+            Integer index = constants.get(key);
+            if (index == null) {
+                int nameIndex = utf8(memberName);
+                int descriptorIndex = utf8(descriptor);
+                poolOut.writeByte(12);
+                poolOut.writeShort(nameIndex);
+                poolOut.writeShort(descriptorIndex);
+                index = add(key);
+            }
+            return index;
+        }
+
+        private int add(String key) {
+            int index = nextConstant++;
+            constants.put(key, index);
+            return index;
+        }
+    }
+
+    private static final class Code {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        Code op(int opcode) {
+            bytes.write(opcode);
+            return this;
+        }
+
+        Code u1(int value) {
+            bytes.write(value);
+            return this;
+        }
+
+        Code u2(int value) {
+            bytes.write(value >> 8);
+            bytes.write(value);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package jheister.lmdbcollections.codec;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Self-delimiting encoding of variable length byte strings which keeps their unsigned lexicographic order:
+ * 0x00 is escaped as 0x00 0xFF and the end is marked with 0x00 0x01. Descending encodings are the bitwise
+ * complement of the ascending one.
+ */
+public final class OrderedBytes {
+    private static final byte ESCAPE = 0x00;
+    private static final byte ESCAPED_ZERO = (byte) 0xFF;
+    private static final byte TERMINATOR = 0x01;
+
+    private OrderedBytes() {
+    }
+
+    /**
+     * Escapes the bytes between start and the buffer's position in place and appends the terminator.
+     */
+    public static void escape(ByteBuffer buffer, int start, boolean descending) {
+        int end = buffer.position();
+        int zeros = 0;
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == ESCAPE) {
+                zeros++;
+            }
+        }
+        int escapedEnd = end + zeros + 2;
+        if (escapedEnd > buffer.limit()) {
+            throw new BufferOverflowException();
+        }
+        byte mask = descending ? (byte) 0xFF : 0;
+
+        int write = escapedEnd;
+        buffer.put(--write, (byte) (TERMINATOR ^ mask));
+        buffer.put(--write, (byte) (ESCAPE ^ mask));
+        for (int read = end - 1; read >= start; read--) {
+            byte b = buffer.get(read);
+            if (b == ESCAPE) {
+                buffer.put(--write, (byte) (ESCAPED_ZERO ^ mask));
+                buffer.put(--write, (byte) (ESCAPE ^ mask));
+            } else {
+                buffer.put(--write, (byte) (b ^ mask));
+            }
+        }
+        buffer.position(escapedEnd);
+    }
+
+    /**
+     * Reads an escaped value starting at the buffer's position and leaves the position after its terminator.
+     * Returns a view of the original bytes, which is only a copy when they needed unescaping.
+     */
+    public static ByteBuffer unescape(ByteBuffer buffer, boolean descending) {
+        byte mask = descending ? (byte) 0xFF : 0;
+        int start = buffer.position();
+        int end = terminatorIndex(buffer, start, mask);
+
+        boolean escaped = descending;
+        for (int i = start; i < end && !escaped; i++) {
+            escaped = buffer.get(i) == ESCAPE;
+        }
+
+        ByteBuffer result;
+        if (escaped) {
+            result = ByteBuffer.allocate(end - start);
+            for (int i = start; i < end; i++) {
+                byte b = (byte) (buffer.get(i) ^ mask);
+                result.put(b);
+                if (b == ESCAPE) {
+                    i++;
+                }
+            }
+            result.flip();
+        } else {
+            result = buffer.duplicate();
+            result.position(start).limit(end);
+            result = result.slice();
+        }
+        buffer.position(end + 2);
+        return result;
+    }
+
+    private static int terminatorIndex(ByteBuffer buffer, int start, byte mask) {
+        for (int i = start; i + 1 < buffer.limit(); i++) {
+            if ((byte) (buffer.get(i) ^ mask) == ESCAPE) {
+                if ((byte) (buffer.get(i + 1) ^ mask) == TERMINATOR) {
+                    return i;
+                }
+                i++;
+            }
+        }
+        throw new IllegalArgumentException("No terminator found after position " + start);
+    }
+}
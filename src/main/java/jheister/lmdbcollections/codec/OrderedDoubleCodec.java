@@ -0,0 +1,39 @@
+package jheister.lmdbcollections.codec;
+
+import java.nio.ByteBuffer;
+
+//ieee 754 bits with all bits flipped for negative numbers and only the sign bit for positive ones,
+//giving -Infinity < negatives < -0.0 < 0.0 < positives < Infinity < NaN under memcmp
+public class OrderedDoubleCodec implements Codec<Double> {
+    private final long descendingMask;
+
+    public OrderedDoubleCodec() {
+        this(false);
+    }
+
+    private OrderedDoubleCodec(boolean descending) {
+        this.descendingMask = descending ? -1 : 0;
+    }
+
+    @Override
+    public Double deserialize(ByteBuffer buffer) {
+        long encoded = buffer.getLong() ^ descendingMask;
+        return Double.longBitsToDouble(encoded ^ ((~encoded >> 63) | Long.MIN_VALUE));
+    }
+
+    @Override
+    public void serialize(Double value, ByteBuffer target) {
+        long bits = Double.doubleToLongBits(value);
+        target.putLong(bits ^ ((bits >> 63) | Long.MIN_VALUE) ^ descendingMask);
+    }
+
+    @Override
+    public int encodedSize(Double value) {
+        return Double.BYTES;
+    }
+
+    @Override
+    public Codec<Double> reverseOrder() {
+        return new OrderedDoubleCodec(descendingMask == 0);
+    }
+}
@@ -0,0 +1,40 @@
+package jheister.lmdbcollections.codec;
+
+import java.nio.ByteBuffer;
+
+//big endian with the sign bit flipped (signed) so that lmdb's memcmp ordering matches numeric ordering
+public class OrderedIntegerCodec implements Codec<Integer> {
+    private final boolean signed;
+    private final boolean descending;
+    private final int mask;
+
+    public OrderedIntegerCodec(boolean signed) {
+        this(signed, false);
+    }
+
+    private OrderedIntegerCodec(boolean signed, boolean descending) {
+        this.signed = signed;
+        this.descending = descending;
+        this.mask = (signed ? Integer.MIN_VALUE : 0) ^ (descending ? -1 : 0);
+    }
+
+    @Override
+    public Integer deserialize(ByteBuffer buffer) {
+        return buffer.getInt() ^ mask;
+    }
+
+    @Override
+    public void serialize(Integer value, ByteBuffer target) {
+        target.putInt(value ^ mask);
+    }
+
+    @Override
+    public int encodedSize(Integer value) {
+        return Integer.BYTES;
+    }
+
+    @Override
+    public Codec<Integer> reverseOrder() {
+        return new OrderedIntegerCodec(signed, !descending);
+    }
+}
@@ -0,0 +1,40 @@
+package jheister.lmdbcollections.codec;
+
+import java.nio.ByteBuffer;
+
+//big endian with the sign bit flipped (signed) so that lmdb's memcmp ordering matches numeric ordering
+public class OrderedLongCodec implements Codec<Long> {
+    private final boolean signed;
+    private final boolean descending;
+    private final long mask;
+
+    public OrderedLongCodec(boolean signed) {
+        this(signed, false);
+    }
+
+    private OrderedLongCodec(boolean signed, boolean descending) {
+        this.signed = signed;
+        this.descending = descending;
+        this.mask = (signed ? Long.MIN_VALUE : 0) ^ (descending ? -1 : 0);
+    }
+
+    @Override
+    public Long deserialize(ByteBuffer buffer) {
+        return buffer.getLong() ^ mask;
+    }
+
+    @Override
+    public void serialize(Long value, ByteBuffer target) {
+        target.putLong(value ^ mask);
+    }
+
+    @Override
+    public int encodedSize(Long value) {
+        return Long.BYTES;
+    }
+
+    @Override
+    public Codec<Long> reverseOrder() {
+        return new OrderedLongCodec(signed, !descending);
+    }
+}
@@ -17,4 +17,26 @@ public class StringCodec implements Codec<String> {
         byte[] bytes = value.getBytes(UTF_8);
         target.put(bytes);
     }
+
+    //counts without encoding, malformed surrogates are encoded by getBytes as a single '?'
+    @Override
+    public int encodedSize(String value) {
+        int size = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                size += 1;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                size += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                size += 1;
+            } else {
+                size += 3;
+            }
+        }
+        return size;
+    }
 }
@@ -0,0 +1,53 @@
+package jheister.lmdbcollections.codec;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+//an immutable row of component values for TupleCodec. a tuple with fewer components than its codec encodes as a
+//byte prefix of every tuple starting with the same components, which is what prefix scans use
+public final class Tuple {
+    private final Object[] components;
+
+    private Tuple(Object[] components) {
+        this.components = components;
+    }
+
+    public static Tuple of(Object... components) {
+        for (Object component : components) {
+            Objects.requireNonNull(component, "Tuple components cannot be null");
+        }
+        return new Tuple(components.clone());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(int index) {
+        return (T) components[index];
+    }
+
+    public int size() {
+        return components.length;
+    }
+
+    //the first size components
+    public Tuple prefix(int size) {
+        if (size > components.length) {
+            throw new IllegalArgumentException("Tuple has " + components.length + " components, cannot take " + size);
+        }
+        return new Tuple(Arrays.copyOf(components, size));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Tuple && Arrays.deepEquals(components, ((Tuple) o).components);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.deepHashCode(components);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.deepToString(components);
+    }
+}
@@ -0,0 +1,117 @@
+package jheister.lmdbcollections.codec;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+
+//composite keys which sort component by component under plain memcmp, so collections keyed by them need no java
+//comparator. components must be ordered by their bytes themselves: fixed width ordered numbers are written as is,
+//nested tuples delimit themselves and everything else is escaped and terminated (see OrderedBytes) so a shorter
+//component sorts before a longer one starting with the same bytes. a tuple with only the leading components encodes
+//as a byte prefix of the full keys, which makes LmdbMap.prefixEntries a scan over those leading components
+public class TupleCodec implements Codec<Tuple> {
+    private final Codec<Object>[] components;
+    private final Kind[] kinds;
+
+    @SuppressWarnings("unchecked")
+    private TupleCodec(Codec<?>[] components) {
+        this.components = (Codec<Object>[]) components.clone();
+        this.kinds = new Kind[components.length];
+        for (int i = 0; i < components.length; i++) {
+            if (components[i].comparator() != null) {
+                throw new IllegalArgumentException("Tuple component " + i + " has a comparator, components must be ordered by their bytes");
+            }
+            kinds[i] = Kind.of(components[i]);
+        }
+    }
+
+    public static TupleCodec of(Codec<?>... components) {
+        if (components.length == 0) {
+            throw new IllegalArgumentException("A tuple needs at least one component");
+        }
+        return new TupleCodec(components);
+    }
+
+    public int size() {
+        return components.length;
+    }
+
+    @Override
+    public Tuple deserialize(ByteBuffer buffer) {
+        Object[] values = new Object[components.length];
+        int size = 0;
+        while (size < components.length && buffer.hasRemaining()) {
+            values[size] = read(size, buffer);
+            size++;
+        }
+        return Tuple.of(size == components.length ? values : Arrays.copyOf(values, size));
+    }
+
+    @Override
+    public void serialize(Tuple value, ByteBuffer target) {
+        write(value, target, true);
+    }
+
+    @Override
+    public int encodedSize(Tuple value) {
+        int size = 0;
+        for (int i = 0; i < value.size(); i++) {
+            if (kinds[i] == Kind.ESCAPED) {
+                return -1;
+            }
+            int componentSize = components[i].encodedSize(value.get(i));
+            if (componentSize < 0) {
+                return -1;
+            }
+            size += componentSize;
+        }
+        return size;
+    }
+
+    @Override
+    public Comparator<ByteBuffer> comparator() {
+        return null;
+    }
+
+    //a nested tuple followed by further components has to be complete, or its end could not be found when reading
+    private void write(Tuple value, ByteBuffer target, boolean prefixAllowed) {
+        if (value.size() > components.length || (!prefixAllowed && value.size() != components.length)) {
+            throw new IllegalArgumentException("Expected " + (prefixAllowed ? "at most " : "") + components.length
+                    + " tuple components but got " + value.size());
+        }
+        for (int i = 0; i < value.size(); i++) {
+            switch (kinds[i]) {
+                case FIXED:
+                    components[i].serialize(value.get(i), target);
+                    break;
+                case NESTED:
+                    ((TupleCodec) (Codec<?>) components[i]).write(value.get(i), target, prefixAllowed && i == value.size() - 1);
+                    break;
+                default:
+                    int start = target.position();
+                    components[i].serialize(value.get(i), target);
+                    OrderedBytes.escape(target, start, false);
+            }
+        }
+    }
+
+    private Object read(int component, ByteBuffer buffer) {
+        if (kinds[component] == Kind.ESCAPED) {
+            return components[component].deserialize(OrderedBytes.unescape(buffer, false));
+        }
+        return components[component].deserialize(buffer);
+    }
+
+    private enum Kind {
+        FIXED,
+        NESTED,
+        ESCAPED;
+
+        static Kind of(Codec<?> codec) {
+            if (codec instanceof OrderedIntegerCodec || codec instanceof OrderedLongCodec || codec instanceof OrderedDoubleCodec) {
+                return FIXED;
+            }
+            return codec instanceof TupleCodec ? NESTED : ESCAPED;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package jheister.lmdbcollections.codec;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+//view over values written by StringCodec. comparisons encode the other side on the fly rather than decoding
+public class Utf8View extends BufferView {
+    public boolean contentEquals(CharSequence other) {
+        return compareTo(other) == 0;
+    }
+
+    public boolean startsWith(CharSequence prefix) {
+        int pos = 0;
+        for (int i = 0; i < prefix.length(); i++) {
+            int c = Character.codePointAt(prefix, i);
+            if (Character.isSupplementaryCodePoint(c)) {
+                i++;
+            }
+            int matched = matchCodePoint(c, pos);
+            if (matched < 0) {
+                return false;
+            }
+            pos = matched;
+        }
+        return true;
+    }
+
+    //same order as comparing the encoded bytes unsigned, which for utf-8 is code point order
+    public int compareTo(CharSequence other) {
+        int pos = 0;
+        for (int i = 0; i < other.length(); i++) {
+            int c = Character.codePointAt(other, i);
+            if (Character.isSupplementaryCodePoint(c)) {
+                i++;
+            }
+            int n = encodedLength(c);
+            for (int b = 0; b < n; b++) {
+                if (pos + b == length) {
+                    return -1;
+                }
+                int cmp = Integer.compare(getByte(pos + b) & 0xFF, encodedByte(c, n, b));
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            pos += n;
+        }
+        return pos == length ? 0 : 1;
+    }
+
+    private int matchCodePoint(int c, int pos) {
+        int n = encodedLength(c);
+        if (pos + n > length) {
+            return -1;
+        }
+        for (int b = 0; b < n; b++) {
+            if ((getByte(pos + b) & 0xFF) != encodedByte(c, n, b)) {
+                return -1;
+            }
+        }
+        return pos + n;
+    }
+
+    private static int encodedLength(int c) {
+        if (c < 0x80) {
+            return 1;
+        } else if (c < 0x800) {
+            return 2;
+        } else if (c < 0x10000) {
+            return 3;
+        }
+        return 4;
+    }
+
+    private static int encodedByte(int c, int n, int b) {
+        if (n == 1) {
+            return c;
+        }
+        if (b == 0) {
+            int leading = n == 2 ? 0xC0 : n == 3 ? 0xE0 : 0xF0;
+            return leading | (c >>> (6 * (n - 1)));
+        }
+        return 0x80 | ((c >>> (6 * (n - 1 - b))) & 0x3F);
+    }
+
+    @Override
+    public String toString() {
+        return new String(toBytes(), UTF_8);
+    }
+}
@@ -0,0 +1,37 @@
+package jheister.lmdbcollections.codec;
+
+import java.nio.ByteBuffer;
+
+//unsigned little endian base 128, 7 bits per byte with the high bit set on all but the last
+final class VarInts {
+    private VarInts() {
+    }
+
+    static void put(ByteBuffer target, int value) {
+        while ((value & ~0x7F) != 0) {
+            target.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        target.put((byte) value);
+    }
+
+    static int get(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    static int size(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,413 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.LmdbStorageEnvironment;
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.codec.Codec;
+import jheister.lmdbcollections.collections.LmdbTable.TableEntry;
+import org.lmdbjava.Cursor;
+import org.lmdbjava.Dbi;
+import org.lmdbjava.PutFlags;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.lmdbjava.PutFlags.MDB_APPEND;
+import static org.lmdbjava.PutFlags.MDB_APPENDDUP;
+
+/**
+ * Loads entries through a single cursor using MDB_APPEND (MDB_APPENDDUP for multimaps), which fills pages
+ * completely and skips the search for the insert position. Keys have to sort after everything already in the
+ * collection. Input that is not sorted goes through {@link #load} which sorts it first, spilling to temp files
+ * when it does not fit in the sort buffer.
+ */
+public class BulkLoader<E> {
+    private static final int RECORD_OVERHEAD = 48;
+    private static final int MAX_KEY_SIZE = 511;
+    //grows for larger values, see Transaction.serializeGrowing
+    private static final int INITIAL_VALUE_BUFFER_SIZE = 4096 * 10;
+
+    private final LmdbStorageEnvironment env;
+    private final Dbi<ByteBuffer> db;
+    private final Comparator<ByteBuffer> keyComparator;
+    private final boolean dupSort;
+    private final EntrySerializer<E> serializer;
+
+    private int commitEvery = 100_000;
+    private long sortBufferBytes = 64L * 1024 * 1024;
+    private Path tempDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+
+    BulkLoader(LmdbStorageEnvironment env, Dbi<ByteBuffer> db, Comparator<ByteBuffer> keyComparator, boolean dupSort, EntrySerializer<E> serializer) {
+        this.env = env;
+        this.db = db;
+        this.keyComparator = keyComparator == null ? Ranges::compareBytes : keyComparator;
+        this.dupSort = dupSort;
+        this.serializer = serializer;
+    }
+
+    //the map's indexes are not maintained, rebuild them after loading
+    public static <K, V> BulkLoader<Entry<K, V>> forMap(LmdbStorageEnvironment env, LmdbMap<K, V> map) {
+        return new BulkLoader<>(env, map.db(), map.keyCodec().comparator(), false,
+                new EntrySerializer<>((e, key) -> map.keyCodec().serialize(e.key, key), map.valueCodec(), e -> e.value));
+    }
+
+    public static <K, V> BulkLoader<Entry<K, V>> forSetMultimap(LmdbStorageEnvironment env, LmdbSetMultimap<K, V> multimap) {
+        return new BulkLoader<>(env, multimap.db(), multimap.keyCodec().comparator(), true,
+                new EntrySerializer<>((e, key) -> multimap.keyCodec().serialize(e.key, key), multimap.valueCodec(), e -> e.value));
+    }
+
+    public static <R, C, V> BulkLoader<TableEntry<R, C, V>> forTable(LmdbStorageEnvironment env, LmdbTable<R, C, V> table) {
+        return new BulkLoader<>(env, table.db(), table.keyComparator(), false,
+                new EntrySerializer<>((e, key) -> table.serializeKey(key, e.rowKey, e.colKey), table.valueCodec(), e -> e.value));
+    }
+
+    public BulkLoader<E> setCommitEvery(int entries) {
+        this.commitEvery = entries;
+        return this;
+    }
+
+    public BulkLoader<E> setSortBufferBytes(long sortBufferBytes) {
+        this.sortBufferBytes = sortBufferBytes;
+        return this;
+    }
+
+    public BulkLoader<E> setTempDirectory(Path tempDirectory) {
+        this.tempDirectory = tempDirectory;
+        return this;
+    }
+
+    public LoadStats loadSorted(Stream<E> entries) {
+        try (Stream<E> s = entries) {
+            return loadSorted(s.iterator());
+        }
+    }
+
+    public LoadStats loadSorted(Iterator<E> entries) {
+        long start = System.nanoTime();
+        try (Appender appender = new Appender()) {
+            while (entries.hasNext()) {
+                appender.append(entries.next());
+            }
+            return appender.finish(start, 0);
+        }
+    }
+
+    public LoadStats load(Stream<E> entries) {
+        try (Stream<E> s = entries) {
+            return load(s.iterator());
+        }
+    }
+
+    public LoadStats load(Iterator<E> entries) {
+        long start = System.nanoTime();
+        ByteBuffer key = ByteBuffer.allocate(MAX_KEY_SIZE);
+        ByteBuffer value = ByteBuffer.allocate(INITIAL_VALUE_BUFFER_SIZE);
+        Comparator<Record> order = recordOrder();
+
+        List<Path> runs = new ArrayList<>();
+        List<Record> buffer = new ArrayList<>();
+        long bufferedBytes = 0;
+        try {
+            while (entries.hasNext()) {
+                E entry = entries.next();
+                key.clear();
+                serializer.serializeKey(entry, key);
+                value = serializer.serializeValue(entry, value);
+                Record record = new Record(copy(key.flip()), copy(value));
+                buffer.add(record);
+                bufferedBytes += record.key.length + record.value.length + RECORD_OVERHEAD;
+
+                if (bufferedBytes >= sortBufferBytes) {
+                    buffer.sort(order);
+                    runs.add(spill(buffer));
+                    buffer.clear();
+                    bufferedBytes = 0;
+                }
+            }
+            buffer.sort(order);
+
+            try (Appender appender = new Appender()) {
+                if (runs.isEmpty()) {
+                    for (Record record : buffer) {
+                        appender.append(record);
+                    }
+                } else {
+                    runs.add(spill(buffer));
+                    buffer.clear();
+                    merge(runs, order, appender);
+                }
+                return appender.finish(start, runs.size());
+            }
+        } finally {
+            for (Path run : runs) {
+                try {
+                    Files.deleteIfExists(run);
+                } catch (IOException e) {
+                    //best effort, the run lives in a temp directory
+                }
+            }
+        }
+    }
+
+    private Comparator<Record> recordOrder() {
+        Comparator<Record> byKey = (a, b) -> keyComparator.compare(ByteBuffer.wrap(a.key), ByteBuffer.wrap(b.key));
+        //duplicates of a dupsort db are ordered by memcmp
+        return dupSort ? byKey.thenComparing((a, b) -> Ranges.compareBytes(ByteBuffer.wrap(a.value), ByteBuffer.wrap(b.value))) : byKey;
+    }
+
+    private Path spill(List<Record> sorted) {
+        try {
+            Path run = Files.createTempFile(tempDirectory, "lmdb-bulk-load", ".run");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+                for (Record record : sorted) {
+                    out.writeInt(record.key.length);
+                    out.write(record.key);
+                    out.writeInt(record.value.length);
+                    out.write(record.value);
+                }
+            }
+            return run;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void merge(List<Path> runs, Comparator<Record> order, Appender appender) {
+        List<RunReader> readers = new ArrayList<>();
+        try {
+            PriorityQueue<RunReader> heads = new PriorityQueue<>((a, b) -> order.compare(a.head, b.head));
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run);
+                readers.add(reader);
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            }
+            while (!heads.isEmpty()) {
+                RunReader reader = heads.poll();
+                appender.append(reader.head);
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private static byte[] copy(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    static final class EntrySerializer<E> {
+        private final BiConsumer<E, ByteBuffer> keyWriter;
+        private final Codec<Object> valueCodec;
+        private final Function<E, ?> valueOf;
+
+        @SuppressWarnings("unchecked")
+        <V> EntrySerializer(BiConsumer<E, ByteBuffer> keyWriter, Codec<V> valueCodec, Function<E, V> valueOf) {
+            this.keyWriter = keyWriter;
+            this.valueCodec = (Codec<Object>) valueCodec;
+            this.valueOf = valueOf;
+        }
+
+        void serializeKey(E entry, ByteBuffer keyTarget) {
+            keyWriter.accept(entry, keyTarget);
+        }
+
+        //returns the buffer holding the flipped value, a larger one than given when the value did not fit
+        ByteBuffer serializeValue(E entry, ByteBuffer valueTarget) {
+            return Transaction.serializeGrowing(valueCodec, valueOf.apply(entry), valueTarget);
+        }
+
+        void serializeValue(E entry, Transaction txn) {
+            txn.serializeValue(valueCodec, valueOf.apply(entry));
+        }
+    }
+
+    private static class Record {
+        private final byte[] key;
+        private final byte[] value;
+
+        private Record(byte[] key, byte[] value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static class RunReader implements AutoCloseable {
+        private final DataInputStream in;
+        private Record head;
+
+        private RunReader(Path run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+        }
+
+        private boolean advance() throws IOException {
+            byte[] key;
+            try {
+                key = new byte[in.readInt()];
+            } catch (EOFException e) {
+                head = null;
+                return false;
+            }
+            in.readFully(key);
+            byte[] value = new byte[in.readInt()];
+            in.readFully(value);
+            head = new Record(key, value);
+            return true;
+        }
+
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private class Appender implements AutoCloseable {
+        private final PutFlags appendFlag = dupSort ? MDB_APPENDDUP : MDB_APPEND;
+        private final ByteBuffer previousKey = ByteBuffer.allocate(MAX_KEY_SIZE);
+        //only kept for dupsort dbs, whose values are capped by lmdb's key size
+        private final ByteBuffer previousValue = ByteBuffer.allocate(MAX_KEY_SIZE);
+        private boolean hasPrevious = false;
+        private Transaction txn;
+        private Cursor<ByteBuffer> cursor;
+        private long entries = 0;
+        private long commits = 0;
+        private int uncommitted = 0;
+
+        private void append(E entry) {
+            begin();
+            txn.keyBuffer.clear();
+            serializer.serializeKey(entry, txn.keyBuffer);
+            txn.keyBuffer.flip();
+            serializer.serializeValue(entry, txn);
+            put();
+        }
+
+        private void append(Record record) {
+            begin();
+            txn.keyBuffer.clear();
+            txn.keyBuffer.put(record.key).flip();
+            txn.serializeValue(Codec.BYTES_CODEC, record.value);
+            put();
+        }
+
+        private void begin() {
+            if (txn == null) {
+                txn = env.explicitTxnWrite();
+                cursor = db.openCursor(txn.lmdbTxn());
+            }
+        }
+
+        private void put() {
+            if (hasPrevious) {
+                int keyOrder = keyComparator.compare(txn.keyBuffer.duplicate(), previousKey.duplicate());
+                int order = keyOrder == 0 && dupSort ? Ranges.compareBytes(txn.valueBuffer, previousValue) : keyOrder;
+                if (order < 0) {
+                    throw new IllegalArgumentException("Entries are not sorted, entry " + entries + " sorts before the one preceding it");
+                }
+                if (order == 0) {
+                    if (!dupSort) {
+                        throw new IllegalArgumentException("Duplicate key at entry " + entries);
+                    }
+                    return;
+                }
+            }
+
+            cursor.put(txn.keyBuffer, txn.valueBuffer, appendFlag);
+            previousKey.clear();
+            previousKey.put(txn.keyBuffer.duplicate()).flip();
+            if (dupSort) {
+                previousValue.clear();
+                previousValue.put(txn.valueBuffer.duplicate()).flip();
+            }
+            hasPrevious = true;
+            entries++;
+
+            if (++uncommitted >= commitEvery) {
+                commit();
+            }
+        }
+
+        private void commit() {
+            cursor.close();
+            txn.commit();
+            txn.close();
+            txn = null;
+            commits++;
+            uncommitted = 0;
+        }
+
+        private LoadStats finish(long start, int sortRuns) {
+            if (txn != null) {
+                commit();
+            }
+            return new LoadStats(entries, commits, sortRuns, System.nanoTime() - start);
+        }
+
+        @Override
+        public void close() {
+            if (txn != null) {
+                cursor.close();
+                txn.close();
+            }
+        }
+    }
+
+    public static class LoadStats {
+        public final long entries;
+        public final long commits;
+        public final int sortRuns;
+        public final long elapsedNanos;
+
+        public LoadStats(long entries, long commits, int sortRuns, long elapsedNanos) {
+            this.entries = entries;
+            this.commits = commits;
+            this.sortRuns = sortRuns;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public double entriesPerSecond() {
+            return elapsedNanos == 0 ? 0 : entries / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return "LoadStats{" +
+                    "entries=" + entries +
+                    ", commits=" + commits +
+                    ", sortRuns=" + sortRuns +
+                    ", elapsedNanos=" + elapsedNanos +
+                    ", entriesPerSecond=" + (long) entriesPerSecond() +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.Transaction;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+//read-through cache of decoded values in front of an LmdbMap. all writes to the map have to go through this
+//wrapper, and cached values are shared between readers so must not be mutated.
+//
+//entries are only filled from read txns and are valid for snapshots at or after the last commit that wrote this
+//map (the watermark). a commit invalidates its keys and raises the watermark just before the lmdb commit, so a
+//reader on an older snapshot bypasses the cache and a fill racing with a commit is dropped. a txn that aborts
+//only costs its keys' entries
+public class CachedLmdbMap<K, V> {
+    private static final Object ABSENT = new Object();
+
+    private final LmdbMap<K, V> map;
+    private final int maxEntries;
+    private final Stats stats = new Stats();
+    private final Object lock = new Object();
+    private final LinkedHashMap<K, Object> cache;
+    private long watermark;
+
+    public CachedLmdbMap(LmdbMap<K, V> map, int maxEntries) {
+        this.map = map;
+        this.maxEntries = maxEntries;
+        this.cache = new LinkedHashMap<K, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Object> eldest) {
+                if (size() > CachedLmdbMap.this.maxEntries) {
+                    stats.evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key) {
+        return get(map.localTxn(), key);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(Transaction txn, K key) {
+        //a write txn sees its own uncommitted writes
+        if (!txn.lmdbTxn().isReadOnly()) {
+            return map.get(txn, key);
+        }
+        long snapshot = txn.lmdbTxn().getId();
+        synchronized (lock) {
+            if (snapshot >= watermark) {
+                Object cached = cache.get(key);
+                if (cached != null) {
+                    stats.hits.increment();
+                    return cached == ABSENT ? null : (V) cached;
+                }
+            }
+        }
+        stats.misses.increment();
+        V value = map.get(txn, key);
+        synchronized (lock) {
+            if (snapshot >= watermark) {
+                cache.put(key, value == null ? ABSENT : value);
+            }
+        }
+        return value;
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    public boolean containsKey(Transaction txn, K key) {
+        return get(txn, key) != null;
+    }
+
+    public void put(K key, V value) {
+        put(map.localTxn(), key, value);
+    }
+
+    public void put(Transaction txn, K key, V value) {
+        map.put(txn, key, value);
+        pendingWrites(txn).keys.add(key);
+    }
+
+    public void remove(K key) {
+        remove(map.localTxn(), key);
+    }
+
+    public void remove(Transaction txn, K key) {
+        map.remove(txn, key);
+        pendingWrites(txn).keys.add(key);
+    }
+
+    public void clear() {
+        clear(map.localTxn());
+    }
+
+    public void clear(Transaction txn) {
+        map.clear(txn);
+        pendingWrites(txn).cleared = true;
+    }
+
+    //the underlying map, for reads the cache does not cover. writing through it bypasses invalidation
+    public LmdbMap<K, V> map() {
+        return map;
+    }
+
+    public Stats stats() {
+        return stats;
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return cache.size();
+        }
+    }
+
+    private PendingWrites<K> pendingWrites(Transaction txn) {
+        return txn.attachment(this, t -> {
+            //the id of a write txn is the one it commits as
+            PendingWrites<K> pending = new PendingWrites<>(t.lmdbTxn().getId());
+            t.beforeCommit(() -> invalidate(pending));
+            return pending;
+        });
+    }
+
+    private void invalidate(PendingWrites<K> pending) {
+        synchronized (lock) {
+            watermark = Math.max(watermark, pending.txnId);
+            if (pending.cleared) {
+                cache.clear();
+            } else {
+                cache.keySet().removeAll(pending.keys);
+            }
+        }
+    }
+
+    private static class PendingWrites<K> {
+        private final long txnId;
+        private final Set<K> keys = new HashSet<>();
+        private boolean cleared;
+
+        private PendingWrites(long txnId) {
+            this.txnId = txnId;
+        }
+    }
+
+    public static class Stats {
+        public final LongAdder hits = new LongAdder();
+        public final LongAdder misses = new LongAdder();
+        public final LongAdder evictions = new LongAdder();
+
+        public double hitRate() {
+            long hits = this.hits.sum();
+            long total = hits + misses.sum();
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + hits.sum() + " misses=" + misses.sum() + " evictions=" + evictions.sum();
+        }
+    }
+}
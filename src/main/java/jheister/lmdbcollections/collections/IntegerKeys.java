@@ -0,0 +1,43 @@
+package jheister.lmdbcollections.collections;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+//MDB_INTEGERKEY and MDB_INTEGERDUP compare keys as native unsigned integers while lmdbjava hands out
+//big endian buffers, so values are byte swapped on little endian machines
+final class IntegerKeys {
+    private static final boolean SWAP = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    private IntegerKeys() {
+    }
+
+    static ByteBuffer putLong(ByteBuffer target, long value) {
+        target.clear();
+        target.putLong(0, SWAP ? Long.reverseBytes(value) : value);
+        target.limit(Long.BYTES);
+        return target;
+    }
+
+    static ByteBuffer putInt(ByteBuffer target, int value) {
+        target.clear();
+        target.putInt(0, SWAP ? Integer.reverseBytes(value) : value);
+        target.limit(Integer.BYTES);
+        return target;
+    }
+
+    static ByteBuffer empty(ByteBuffer target) {
+        target.clear();
+        target.limit(0);
+        return target;
+    }
+
+    static long getLong(ByteBuffer buffer) {
+        long value = buffer.getLong(buffer.position());
+        return SWAP ? Long.reverseBytes(value) : value;
+    }
+
+    static int getInt(ByteBuffer buffer) {
+        int value = buffer.getInt(buffer.position());
+        return SWAP ? Integer.reverseBytes(value) : value;
+    }
+}
@@ -0,0 +1,50 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.codec.Codec;
+
+import java.nio.ByteBuffer;
+
+public class LazyEntry<K, V> extends LazyRecord {
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private boolean keyDecoded;
+    private K decodedKey;
+    private boolean valueDecoded;
+    private V decodedValue;
+
+    LazyEntry(Position streamPosition, ByteBuffer key, ByteBuffer value, Codec<K> keyCodec, Codec<V> valueCodec) {
+        super(streamPosition, key, value);
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+    }
+
+    public K key() {
+        if (!keyDecoded) {
+            checkCurrent();
+            decodedKey = keyCodec.deserialize(key);
+            keyDecoded = true;
+        }
+        return decodedKey;
+    }
+
+    public V value() {
+        if (!valueDecoded) {
+            checkCurrent();
+            decodedValue = valueCodec.deserialize(value);
+            valueDecoded = true;
+        }
+        return decodedValue;
+    }
+
+    public Entry<K, V> toEntry() {
+        return new Entry<>(key(), value());
+    }
+
+    @Override
+    public String toString() {
+        return "LazyEntry{" +
+                "key=" + (keyDecoded ? decodedKey : "<lazy>") +
+                ", value=" + (valueDecoded ? decodedValue : "<lazy>") +
+                '}';
+    }
+}
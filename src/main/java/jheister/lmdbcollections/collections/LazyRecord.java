@@ -0,0 +1,34 @@
+package jheister.lmdbcollections.collections;
+
+import java.nio.ByteBuffer;
+
+//base for entries that decode from the cursor's buffers on first access. the buffers are repointed when
+//the stream advances, so a field has to be read (or the entry materialized) before the next element
+abstract class LazyRecord {
+    private final Position streamPosition;
+    private final long position;
+    final ByteBuffer key;
+    final ByteBuffer value;
+
+    LazyRecord(Position streamPosition, ByteBuffer key, ByteBuffer value) {
+        this.streamPosition = streamPosition;
+        this.position = streamPosition.current;
+        this.key = key;
+        this.value = value;
+    }
+
+    void checkCurrent() {
+        if (streamPosition.current != position) {
+            throw new IllegalStateException("Entry can only be decoded before its stream advances");
+        }
+    }
+
+    static final class Position {
+        long current;
+
+        Position advance() {
+            current++;
+            return this;
+        }
+    }
+}
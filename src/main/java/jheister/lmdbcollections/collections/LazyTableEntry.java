@@ -0,0 +1,60 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.collections.LmdbTable.TableEntry;
+
+import java.nio.ByteBuffer;
+
+public class LazyTableEntry<R, C, V> extends LazyRecord {
+    private final LmdbTable<R, C, V> table;
+    private boolean rowKeyDecoded;
+    private R decodedRowKey;
+    private boolean colKeyDecoded;
+    private C decodedColKey;
+    private boolean valueDecoded;
+    private V decodedValue;
+
+    LazyTableEntry(Position streamPosition, ByteBuffer key, ByteBuffer value, LmdbTable<R, C, V> table) {
+        super(streamPosition, key, value);
+        this.table = table;
+    }
+
+    public R rowKey() {
+        if (!rowKeyDecoded) {
+            checkCurrent();
+            decodedRowKey = table.rowKeyFor(key);
+            rowKeyDecoded = true;
+        }
+        return decodedRowKey;
+    }
+
+    public C colKey() {
+        if (!colKeyDecoded) {
+            checkCurrent();
+            decodedColKey = table.colKeyFor(key);
+            colKeyDecoded = true;
+        }
+        return decodedColKey;
+    }
+
+    public V value() {
+        if (!valueDecoded) {
+            checkCurrent();
+            decodedValue = table.valueCodec().deserialize(value);
+            valueDecoded = true;
+        }
+        return decodedValue;
+    }
+
+    public TableEntry<R, C, V> toEntry() {
+        return new TableEntry<>(rowKey(), colKey(), value());
+    }
+
+    @Override
+    public String toString() {
+        return "LazyTableEntry{" +
+                "rowKey=" + (rowKeyDecoded ? decodedRowKey : "<lazy>") +
+                ", colKey=" + (colKeyDecoded ? decodedColKey : "<lazy>") +
+                ", value=" + (valueDecoded ? decodedValue : "<lazy>") +
+                '}';
+    }
+}
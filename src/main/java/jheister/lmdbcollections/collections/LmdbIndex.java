@@ -0,0 +1,150 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.CollectionMetrics;
+import jheister.lmdbcollections.LmdbStorageEnvironment;
+import jheister.lmdbcollections.LmdbStorageEnvironment.ThreadLocalTransaction;
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.codec.Codec;
+import org.lmdbjava.CursorIterable;
+import org.lmdbjava.Dbi;
+import org.lmdbjava.KeyRange;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static java.util.Spliterators.spliteratorUnknownSize;
+import static java.util.stream.StreamSupport.stream;
+import static jheister.lmdbcollections.CollectionMetrics.Op.PUT;
+import static jheister.lmdbcollections.CollectionMetrics.Op.REMOVE;
+
+//secondary index of an LmdbMap: a MDB_DUPSORT db from the key the extractor gives for a value to the primary keys of
+//the entries with that value, kept up to date by the map's puts, removes and clears in the same txn. values the
+//extractor gives null for are not indexed. bulk loads bypass indexes, as does changing an extractor, so rebuild
+//after either. see LmdbStorageEnvironment.index
+public class LmdbIndex<I, K, V> {
+    private final String name;
+    private final Dbi<ByteBuffer> db;
+    private final LmdbMap<K, V> map;
+    private final Codec<I> indexCodec;
+    private final Function<V, I> extractor;
+    private final ThreadLocalTransaction localTxn;
+    private final CollectionMetrics metrics;
+
+    public LmdbIndex(String name, Dbi<ByteBuffer> db, LmdbMap<K, V> map, Codec<I> indexCodec, Function<V, I> extractor, ThreadLocalTransaction localTxn, CollectionMetrics metrics) {
+        this.name = name;
+        this.db = db;
+        this.map = map;
+        this.indexCodec = indexCodec;
+        this.extractor = extractor;
+        this.localTxn = localTxn;
+        this.metrics = metrics;
+    }
+
+    //registered with the map under the write lock, so writes either commit before the build reads the map or maintain
+    //the index
+    public static <I, K, V> LmdbIndex<I, K, V> create(LmdbStorageEnvironment env,
+                                                      String name,
+                                                      Dbi<ByteBuffer> db,
+                                                      LmdbMap<K, V> map,
+                                                      Codec<I> indexCodec,
+                                                      Function<V, I> extractor,
+                                                      ThreadLocalTransaction localTxn,
+                                                      CollectionMetrics metrics) {
+        LmdbIndex<I, K, V> index = new LmdbIndex<>(name, db, map, indexCodec, extractor, localTxn, metrics);
+        env.writeAndCommit(txn -> {
+            map.addIndex(index);
+            index.buildIfEmpty(txn);
+        });
+        return index;
+    }
+
+    //entries of the map whose value has the given index key, in primary key byte order
+    public Stream<Entry<K, V>> findBy(I indexKey) {
+        return findBy(localTxn.get(), indexKey);
+    }
+
+    public Stream<Entry<K, V>> findBy(Transaction txn, I indexKey) {
+        return primaryKeys(txn, indexKey).map(primaryKey -> {
+            ByteBuffer value = map.db().get(txn.lmdbTxn(), primaryKey);
+            if (value == null) {
+                throw new IllegalStateException("Index points at a missing entry, it needs a rebuild");
+            }
+            return new Entry<>(map.keyCodec().deserialize(primaryKey.duplicate()), map.valueCodec().deserialize(value));
+        });
+    }
+
+    public Stream<K> findKeysBy(I indexKey) {
+        return findKeysBy(localTxn.get(), indexKey);
+    }
+
+    public Stream<K> findKeysBy(Transaction txn, I indexKey) {
+        return primaryKeys(txn, indexKey).map(map.keyCodec()::deserialize);
+    }
+
+    //indexes every entry of the map again, for after a bulk load or a change to the extractor
+    public void rebuild() {
+        rebuild(localTxn.get());
+    }
+
+    public void rebuild(Transaction txn) {
+        db.drop(txn.lmdbTxn());
+        try (CursorIterable<ByteBuffer> iterable = map.db().iterate(txn.lmdbTxn())) {
+            for (CursorIterable.KeyVal<ByteBuffer> kv : iterable) {
+                update(txn, kv.key(), null, map.valueCodec().deserialize(kv.val()));
+            }
+        }
+    }
+
+    private void buildIfEmpty(Transaction txn) {
+        if (db.stat(txn.lmdbTxn()).entries == 0 && map.db().stat(txn.lmdbTxn()).entries > 0) {
+            rebuild(txn);
+        }
+    }
+
+    String name() {
+        return name;
+    }
+
+    //moves the primary key from the old value's index key to the new one's, either value null when absent. uses the
+    //txn's key buffer
+    void update(Transaction txn, ByteBuffer primaryKey, V oldValue, V newValue) {
+        I oldKey = oldValue == null ? null : extractor.apply(oldValue);
+        I newKey = newValue == null ? null : extractor.apply(newValue);
+        if (Objects.equals(oldKey, newKey)) {
+            return;
+        }
+        long start = metrics.start();
+        if (oldKey != null) {
+            txn.serializeKey(indexCodec, oldKey);
+            metrics.encoded(txn.keyBuffer.remaining() + primaryKey.remaining());
+            db.delete(txn.lmdbTxn(), txn.keyBuffer, primaryKey);
+            metrics.record(REMOVE, start);
+            start = metrics.start();
+        }
+        if (newKey != null) {
+            txn.serializeKey(indexCodec, newKey);
+            metrics.encoded(txn.keyBuffer.remaining() + primaryKey.remaining());
+            db.put(txn.lmdbTxn(), txn.keyBuffer, primaryKey);
+            metrics.record(PUT, start);
+        }
+    }
+
+    void clear(Transaction txn) {
+        db.drop(txn.lmdbTxn());
+    }
+
+    private Stream<ByteBuffer> primaryKeys(Transaction txn, I indexKey) {
+        txn.serializeKey(indexCodec, indexKey);
+        metrics.encoded(txn.keyBuffer.remaining());
+        //a copy as the txn's key buffer may be reused before the stream is done
+        ByteBuffer key = Ranges.copyOf(txn.keyBuffer);
+        CursorIterable<ByteBuffer> iterable = db.iterate(txn.lmdbTxn(), KeyRange.atLeast(key), Ranges.restoringBounds(indexCodec.comparator()));
+        return Metered.scan(stream(spliteratorUnknownSize(iterable.iterator(), Spliterator.ORDERED), false)
+                .takeWhile(e -> e.key().compareTo(key) == 0), metrics)
+                .map(CursorIterable.KeyVal::val)
+                .onClose(iterable::close);
+    }
+}
@@ -0,0 +1,89 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.LmdbStorageEnvironment.ThreadLocalTransaction;
+import jheister.lmdbcollections.Transaction;
+import org.lmdbjava.Cursor;
+import org.lmdbjava.Dbi;
+
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+
+//int to int map on an MDB_INTEGERKEY dbi. keys iterate in unsigned order, so negative keys come last
+public class LmdbIntMap {
+    private final Dbi<ByteBuffer> db;
+    private final ThreadLocalTransaction localTxn;
+
+    public LmdbIntMap(Dbi<ByteBuffer> db, ThreadLocalTransaction localTxn) {
+        this.db = db;
+        this.localTxn = localTxn;
+    }
+
+    public void put(int key, int value) {
+        put(localTxn.get(), key, value);
+    }
+
+    public void put(Transaction txn, int key, int value) {
+        db.put(txn.lmdbTxn(), IntegerKeys.putInt(txn.keyBuffer, key), IntegerKeys.putInt(txn.valueBuffer, value));
+    }
+
+    public int get(int key) {
+        return get(localTxn.get(), key);
+    }
+
+    public int get(Transaction txn, int key) {
+        ByteBuffer valueBuffer = db.get(txn.lmdbTxn(), IntegerKeys.putInt(txn.keyBuffer, key));
+        if (valueBuffer == null) {
+            throw new NoSuchElementException("No value for key " + key);
+        }
+        return IntegerKeys.getInt(valueBuffer);
+    }
+
+    public int getOrDefault(int key, int defaultValue) {
+        return getOrDefault(localTxn.get(), key, defaultValue);
+    }
+
+    public int getOrDefault(Transaction txn, int key, int defaultValue) {
+        ByteBuffer valueBuffer = db.get(txn.lmdbTxn(), IntegerKeys.putInt(txn.keyBuffer, key));
+        return valueBuffer == null ? defaultValue : IntegerKeys.getInt(valueBuffer);
+    }
+
+    public boolean containsKey(int key) {
+        return containsKey(localTxn.get(), key);
+    }
+
+    public boolean containsKey(Transaction txn, int key) {
+        return db.get(txn.lmdbTxn(), IntegerKeys.putInt(txn.keyBuffer, key)) != null;
+    }
+
+    public void remove(int key) {
+        remove(localTxn.get(), key);
+    }
+
+    public void remove(Transaction txn, int key) {
+        db.delete(txn.lmdbTxn(), IntegerKeys.putInt(txn.keyBuffer, key));
+    }
+
+    public void clear() {
+        clear(localTxn.get());
+    }
+
+    public void clear(Transaction txn) {
+        db.drop(txn.lmdbTxn());
+    }
+
+    public void forEach(IntIntConsumer consumer) {
+        forEach(localTxn.get(), consumer);
+    }
+
+    public void forEach(Transaction txn, IntIntConsumer consumer) {
+        try (Cursor<ByteBuffer> cursor = db.openCursor(txn.lmdbTxn())) {
+            for (boolean found = cursor.first(); found; found = cursor.next()) {
+                consumer.accept(IntegerKeys.getInt(cursor.key()), IntegerKeys.getInt(cursor.val()));
+            }
+        }
+    }
+
+    public interface IntIntConsumer {
+        void accept(int key, int value);
+    }
+}
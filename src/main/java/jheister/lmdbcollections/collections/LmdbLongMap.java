@@ -0,0 +1,89 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.LmdbStorageEnvironment.ThreadLocalTransaction;
+import jheister.lmdbcollections.Transaction;
+import org.lmdbjava.Cursor;
+import org.lmdbjava.Dbi;
+
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+
+//long to long map on an MDB_INTEGERKEY dbi. keys iterate in unsigned order, so negative keys come last
+public class LmdbLongMap {
+    private final Dbi<ByteBuffer> db;
+    private final ThreadLocalTransaction localTxn;
+
+    public LmdbLongMap(Dbi<ByteBuffer> db, ThreadLocalTransaction localTxn) {
+        this.db = db;
+        this.localTxn = localTxn;
+    }
+
+    public void put(long key, long value) {
+        put(localTxn.get(), key, value);
+    }
+
+    public void put(Transaction txn, long key, long value) {
+        db.put(txn.lmdbTxn(), IntegerKeys.putLong(txn.keyBuffer, key), IntegerKeys.putLong(txn.valueBuffer, value));
+    }
+
+    public long get(long key) {
+        return get(localTxn.get(), key);
+    }
+
+    public long get(Transaction txn, long key) {
+        ByteBuffer valueBuffer = db.get(txn.lmdbTxn(), IntegerKeys.putLong(txn.keyBuffer, key));
+        if (valueBuffer == null) {
+            throw new NoSuchElementException("No value for key " + key);
+        }
+        return IntegerKeys.getLong(valueBuffer);
+    }
+
+    public long getOrDefault(long key, long defaultValue) {
+        return getOrDefault(localTxn.get(), key, defaultValue);
+    }
+
+    public long getOrDefault(Transaction txn, long key, long defaultValue) {
+        ByteBuffer valueBuffer = db.get(txn.lmdbTxn(), IntegerKeys.putLong(txn.keyBuffer, key));
+        return valueBuffer == null ? defaultValue : IntegerKeys.getLong(valueBuffer);
+    }
+
+    public boolean containsKey(long key) {
+        return containsKey(localTxn.get(), key);
+    }
+
+    public boolean containsKey(Transaction txn, long key) {
+        return db.get(txn.lmdbTxn(), IntegerKeys.putLong(txn.keyBuffer, key)) != null;
+    }
+
+    public void remove(long key) {
+        remove(localTxn.get(), key);
+    }
+
+    public void remove(Transaction txn, long key) {
+        db.delete(txn.lmdbTxn(), IntegerKeys.putLong(txn.keyBuffer, key));
+    }
+
+    public void clear() {
+        clear(localTxn.get());
+    }
+
+    public void clear(Transaction txn) {
+        db.drop(txn.lmdbTxn());
+    }
+
+    public void forEach(LongLongConsumer consumer) {
+        forEach(localTxn.get(), consumer);
+    }
+
+    public void forEach(Transaction txn, LongLongConsumer consumer) {
+        try (Cursor<ByteBuffer> cursor = db.openCursor(txn.lmdbTxn())) {
+            for (boolean found = cursor.first(); found; found = cursor.next()) {
+                consumer.accept(IntegerKeys.getLong(cursor.key()), IntegerKeys.getLong(cursor.val()));
+            }
+        }
+    }
+
+    public interface LongLongConsumer {
+        void accept(long key, long value);
+    }
+}
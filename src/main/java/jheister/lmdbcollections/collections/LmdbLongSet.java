@@ -0,0 +1,64 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.LmdbStorageEnvironment.ThreadLocalTransaction;
+import jheister.lmdbcollections.Transaction;
+import org.lmdbjava.Cursor;
+import org.lmdbjava.Dbi;
+
+import java.nio.ByteBuffer;
+import java.util.function.LongConsumer;
+
+//set of longs on an MDB_INTEGERKEY dbi with empty values. iterates in unsigned order, so negative values come last
+public class LmdbLongSet {
+    private final Dbi<ByteBuffer> db;
+    private final ThreadLocalTransaction localTxn;
+
+    public LmdbLongSet(Dbi<ByteBuffer> db, ThreadLocalTransaction localTxn) {
+        this.db = db;
+        this.localTxn = localTxn;
+    }
+
+    public void add(long value) {
+        add(localTxn.get(), value);
+    }
+
+    public void add(Transaction txn, long value) {
+        db.put(txn.lmdbTxn(), IntegerKeys.putLong(txn.keyBuffer, value), IntegerKeys.empty(txn.valueBuffer));
+    }
+
+    public boolean contains(long value) {
+        return contains(localTxn.get(), value);
+    }
+
+    public boolean contains(Transaction txn, long value) {
+        return db.get(txn.lmdbTxn(), IntegerKeys.putLong(txn.keyBuffer, value)) != null;
+    }
+
+    public void remove(long value) {
+        remove(localTxn.get(), value);
+    }
+
+    public void remove(Transaction txn, long value) {
+        db.delete(txn.lmdbTxn(), IntegerKeys.putLong(txn.keyBuffer, value));
+    }
+
+    public void clear() {
+        clear(localTxn.get());
+    }
+
+    public void clear(Transaction txn) {
+        db.drop(txn.lmdbTxn());
+    }
+
+    public void forEach(LongConsumer consumer) {
+        forEach(localTxn.get(), consumer);
+    }
+
+    public void forEach(Transaction txn, LongConsumer consumer) {
+        try (Cursor<ByteBuffer> cursor = db.openCursor(txn.lmdbTxn())) {
+            for (boolean found = cursor.first(); found; found = cursor.next()) {
+                consumer.accept(IntegerKeys.getLong(cursor.key()));
+            }
+        }
+    }
+}
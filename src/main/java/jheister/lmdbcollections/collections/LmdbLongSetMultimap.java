@@ -0,0 +1,64 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.LmdbStorageEnvironment.ThreadLocalTransaction;
+import jheister.lmdbcollections.Transaction;
+import org.lmdbjava.Cursor;
+import org.lmdbjava.Dbi;
+import org.lmdbjava.GetOp;
+import org.lmdbjava.SeekOp;
+
+import java.nio.ByteBuffer;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+//long to sorted set of longs on an MDB_INTEGERKEY | MDB_INTEGERDUP dbi. keys and values are in unsigned order
+public class LmdbLongSetMultimap {
+    private final Dbi<ByteBuffer> db;
+    private final ThreadLocalTransaction localTxn;
+
+    public LmdbLongSetMultimap(Dbi<ByteBuffer> db, ThreadLocalTransaction localTxn) {
+        this.db = db;
+        this.localTxn = localTxn;
+    }
+
+    public void put(long key, long value) {
+        put(localTxn.get(), key, value);
+    }
+
+    public void put(Transaction txn, long key, long value) {
+        db.put(txn.lmdbTxn(), IntegerKeys.putLong(txn.keyBuffer, key), IntegerKeys.putLong(txn.valueBuffer, value));
+    }
+
+    public void remove(long key, long value) {
+        remove(localTxn.get(), key, value);
+    }
+
+    public void remove(Transaction txn, long key, long value) {
+        db.delete(txn.lmdbTxn(), IntegerKeys.putLong(txn.keyBuffer, key), IntegerKeys.putLong(txn.valueBuffer, value));
+    }
+
+    public void forEach(long key, LongConsumer consumer) {
+        forEach(localTxn.get(), key, consumer);
+    }
+
+    public void forEach(Transaction txn, long key, LongConsumer consumer) {
+        try (Cursor<ByteBuffer> cursor = db.openCursor(txn.lmdbTxn())) {
+            if (!cursor.get(IntegerKeys.putLong(txn.keyBuffer, key), GetOp.MDB_SET_KEY)) {
+                return;
+            }
+            do {
+                consumer.accept(IntegerKeys.getLong(cursor.val()));
+            } while (cursor.seek(SeekOp.MDB_NEXT_DUP));
+        }
+    }
+
+    public LongStream get(long key) {
+        return get(localTxn.get(), key);
+    }
+
+    public LongStream get(Transaction txn, long key) {
+        LongStream.Builder values = LongStream.builder();
+        forEach(txn, key, values);
+        return values.build();
+    }
+}
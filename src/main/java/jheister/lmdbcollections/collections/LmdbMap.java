@@ -1,16 +1,36 @@
 package jheister.lmdbcollections.collections;
 
+import jheister.lmdbcollections.CollectionMetrics;
 import jheister.lmdbcollections.LmdbStorageEnvironment.ThreadLocalTransaction;
 import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.codec.BufferView;
 import jheister.lmdbcollections.codec.Codec;
-import org.lmdbjava.CursorIterator;
+import org.lmdbjava.Cursor;
+import org.lmdbjava.CursorIterable;
 import org.lmdbjava.Dbi;
+import org.lmdbjava.GetOp;
+import org.lmdbjava.KeyRange;
 
+import java.io.EOFException;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Spliterator;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Stream;
 
 import static java.util.Spliterators.spliteratorUnknownSize;
+import static jheister.lmdbcollections.CollectionMetrics.Op.GET;
+import static jheister.lmdbcollections.CollectionMetrics.Op.PUT;
+import static jheister.lmdbcollections.CollectionMetrics.Op.REMOVE;
+import static jheister.lmdbcollections.CollectionMetrics.Op.SCAN;
 import static java.util.stream.StreamSupport.stream;
 
 public class LmdbMap<K, V> {
@@ -18,55 +38,424 @@ public class LmdbMap<K, V> {
     private final Codec<K> keyCodec;
     private final Codec<V> valueCodec;
     private final ThreadLocalTransaction localTxn;
+    private final CollectionMetrics metrics;
+    private final List<LmdbIndex<?, K, V>> indexes;
 
     public LmdbMap(Dbi<ByteBuffer> db, Codec<K> keyCodec, Codec<V> valueCodec, ThreadLocalTransaction localTxn) {
+        this(db, keyCodec, valueCodec, localTxn, CollectionMetrics.DISABLED);
+    }
+
+    public LmdbMap(Dbi<ByteBuffer> db, Codec<K> keyCodec, Codec<V> valueCodec, ThreadLocalTransaction localTxn, CollectionMetrics metrics) {
+        this(db, keyCodec, valueCodec, localTxn, metrics, new CopyOnWriteArrayList<>());
+    }
+
+    //indexes is shared by every map opened on the db so that writes through any of them maintain all indexes
+    public LmdbMap(Dbi<ByteBuffer> db, Codec<K> keyCodec, Codec<V> valueCodec, ThreadLocalTransaction localTxn, CollectionMetrics metrics, List<LmdbIndex<?, K, V>> indexes) {
         this.db = db;
         this.keyCodec = keyCodec;
         this.valueCodec = valueCodec;
         this.localTxn = localTxn;
+        this.metrics = metrics;
+        this.indexes = indexes;
     }
 
     public void put(K key, V value) {
-        Transaction txn = localTxn.get();;
+        put(localTxn.get(), key, value);
+    }
 
+    public void put(Transaction txn, K key, V value) {
+        long start = metrics.start();
         txn.serializeKey(keyCodec, key);
-        txn.serializeValue(valueCodec, value);
+        if (!indexes.isEmpty()) {
+            updateIndexes(txn, storedValue(txn), value);
+        }
+        metrics.encoded(txn.keyBuffer.remaining() + ReservedPut.put(db, txn, valueCodec, value));
+        metrics.record(PUT, start);
+    }
+
+    //streams size bytes from the channel straight into the space lmdb reserves for the value, so a large value is
+    //never held on heap. the bytes have to be a valid encoding for the value codec
+    public void put(K key, ReadableByteChannel source, int size) throws IOException {
+        put(localTxn.get(), key, source, size);
+    }
 
-        db.put(txn.lmdbTxn, txn.keyBuffer, txn.valueBuffer);
+    public void put(Transaction txn, K key, ReadableByteChannel source, int size) throws IOException {
+        long start = metrics.start();
+        txn.serializeKey(keyCodec, key);
+        metrics.encoded(txn.keyBuffer.remaining());
+        V oldValue = indexes.isEmpty() ? null : storedValue(txn);
+        ByteBuffer target = db.reserve(txn.lmdbTxn(), txn.keyBuffer, size);
+        while (target.hasRemaining()) {
+            if (source.read(target) < 0) {
+                //the reserved space is already in the page, so the txn has to be aborted
+                throw new EOFException("Channel ended after " + target.position() + " of " + size + " bytes");
+            }
+        }
+        if (!indexes.isEmpty()) {
+            target.flip();
+            updateIndexes(txn, oldValue, valueCodec.deserialize(target));
+        }
+        metrics.record(PUT, start);
     }
 
     public V get(K key) {
-        Transaction txn = localTxn.get();;
+        return get(localTxn.get(), key);
+    }
+
+    public V get(Transaction txn, K key) {
+        long start = metrics.start();
         txn.serializeKey(keyCodec, key);
-        ByteBuffer valueBuffer = db.get(txn.lmdbTxn, txn.keyBuffer);
+        metrics.encoded(txn.keyBuffer.remaining());
+        ByteBuffer valueBuffer = db.get(txn.lmdbTxn(), txn.keyBuffer);
         if (valueBuffer == null) {
+            metrics.record(GET, start);
             return null;
         }
-        return valueCodec.deserialize(valueBuffer);
+        metrics.decoded(valueBuffer.remaining());
+        V value = valueCodec.deserialize(valueBuffer);
+        metrics.record(GET, start);
+        return value;
+    }
+
+    //read-only view of the stored value in lmdb's page (an overflow page for large values), null when absent.
+    //valid until the txn ends or, in a write txn, until the map is next written
+    public ByteBuffer getBuffer(K key) {
+        return getBuffer(localTxn.get(), key);
+    }
+
+    public ByteBuffer getBuffer(Transaction txn, K key) {
+        long start = metrics.start();
+        txn.serializeKey(keyCodec, key);
+        metrics.encoded(txn.keyBuffer.remaining());
+        ByteBuffer valueBuffer = db.get(txn.lmdbTxn(), txn.keyBuffer);
+        metrics.record(GET, start);
+        //lmdbjava repoints its buffer on the next read, a read-only duplicate keeps this value's address
+        return valueBuffer == null ? null : valueBuffer.asReadOnlyBuffer();
+    }
+
+    //wraps the stored value in the given view instead of deserializing it, returns null when absent
+    public <W extends BufferView> W getView(K key, W view) {
+        return getView(localTxn.get(), key, view);
+    }
+
+    public <W extends BufferView> W getView(Transaction txn, K key, W view) {
+        long start = metrics.start();
+        txn.serializeKey(keyCodec, key);
+        metrics.encoded(txn.keyBuffer.remaining());
+        ByteBuffer valueBuffer = db.get(txn.lmdbTxn(), txn.keyBuffer);
+        metrics.record(GET, start);
+        if (valueBuffer == null) {
+            return null;
+        }
+        view.wrap(valueBuffer);
+        return view;
     }
 
     public boolean containsKey(K key) {
-        Transaction txn = localTxn.get();;
+        return containsKey(localTxn.get(), key);
+    }
+
+    public boolean containsKey(Transaction txn, K key) {
+        long start = metrics.start();
         txn.serializeKey(keyCodec, key);
-        return db.get(txn.lmdbTxn, txn.keyBuffer) != null;
+        metrics.encoded(txn.keyBuffer.remaining());
+        boolean found = db.get(txn.lmdbTxn(), txn.keyBuffer) != null;
+        metrics.record(GET, start);
+        return found;
+    }
+
+    //values in the order of the given keys, null where a key is absent
+    public List<V> getAll(Collection<K> keys) {
+        return getAll(localTxn.get(), keys);
+    }
+
+    public List<V> getAll(Transaction txn, Collection<K> keys) {
+        List<V> values = new ArrayList<>(Collections.nCopies(keys.size(), null));
+        MultiGet.lookup(db, txn, MultiGet.serializeKeys(keys, txn.keyBuffer, keyCodec::serialize), keyCodec.comparator(), false,
+                (index, value) -> values.set(index, valueCodec.deserialize(value)));
+        return values;
+    }
+
+    //only present keys, iterating in the order of the given keys
+    public Map<K, V> getAllAsMap(Collection<K> keys) {
+        return getAllAsMap(localTxn.get(), keys);
+    }
+
+    public Map<K, V> getAllAsMap(Transaction txn, Collection<K> keys) {
+        List<K> keyList = new ArrayList<>(keys);
+        List<V> values = getAll(txn, keyList);
+        Map<K, V> result = new LinkedHashMap<>();
+        for (int i = 0; i < keyList.size(); i++) {
+            if (values.get(i) != null) {
+                result.put(keyList.get(i), values.get(i));
+            }
+        }
+        return result;
+    }
+
+    public boolean containsAll(Collection<K> keys) {
+        return containsAll(localTxn.get(), keys);
+    }
+
+    public boolean containsAll(Transaction txn, Collection<K> keys) {
+        return MultiGet.lookup(db, txn, MultiGet.serializeKeys(keys, txn.keyBuffer, keyCodec::serialize), keyCodec.comparator(), true,
+                (index, value) -> {});
     }
 
     public void remove(K key) {
-        Transaction txn = localTxn.get();;
+        remove(localTxn.get(), key);
+    }
+
+    public void remove(Transaction txn, K key) {
+        long start = metrics.start();
         txn.serializeKey(keyCodec, key);
-        db.delete(txn.lmdbTxn, txn.keyBuffer);
+        metrics.encoded(txn.keyBuffer.remaining());
+        if (!indexes.isEmpty()) {
+            V oldValue = storedValue(txn);
+            if (oldValue == null) {
+                metrics.record(REMOVE, start);
+                return;
+            }
+            updateIndexes(txn, oldValue, null);
+        }
+        db.delete(txn.lmdbTxn(), txn.keyBuffer);
+        metrics.record(REMOVE, start);
     }
 
     public void clear() {
-        Transaction txn = localTxn.get();;
-        db.drop(txn.lmdbTxn);
+        clear(localTxn.get());
+    }
+
+    public void clear(Transaction txn) {
+        long start = metrics.start();
+        db.drop(txn.lmdbTxn());
+        for (LmdbIndex<?, K, V> index : indexes) {
+            index.clear(txn);
+        }
+        metrics.record(REMOVE, start);
     }
 
     public Stream<Entry<K, V>> entries() {
-        Transaction txn = localTxn.get();;
-        CursorIterator<ByteBuffer> iterator = db.iterate(txn.lmdbTxn);
-        return stream(spliteratorUnknownSize(iterator, Spliterator.ORDERED), false).map(e -> {
-            return new Entry<K, V>(keyCodec.deserialize(e.key()), valueCodec.deserialize(e.val()));
-        }).onClose(iterator::close);
+        return entries(localTxn.get());
+    }
+
+    public Stream<Entry<K, V>> entries(Transaction txn) {
+        return records(txn).map(e -> new Entry<>(keyCodec.deserialize(e.key()), valueCodec.deserialize(e.val())));
+    }
+
+    //entries decode their key and value on first access, which has to happen before the stream advances
+    public Stream<LazyEntry<K, V>> lazyEntries() {
+        return lazyEntries(localTxn.get());
+    }
+
+    public Stream<LazyEntry<K, V>> lazyEntries(Transaction txn) {
+        LazyRecord.Position position = new LazyRecord.Position();
+        return records(txn).map(e -> new LazyEntry<>(position.advance(), e.key(), e.val(), keyCodec, valueCodec));
+    }
+
+    //splits the key space across the stream's workers, all reading the current read transaction's snapshot. lmdb
+    //only allows that for read transactions of an env opened with noTls(), a thread bound read transaction is
+    //refused, as are write transactions, which lmdb never lets other threads use
+    public Stream<Entry<K, V>> parallelEntries() {
+        return parallelEntries(localTxn.get());
+    }
+
+    public Stream<Entry<K, V>> parallelEntries(Transaction txn) {
+        RangeSpliterator.checkShareable(txn);
+        RangeSpliterator<Entry<K, V>> spliterator = RangeSpliterator.over(db, txn.lmdbTxn(), keyCodec.comparator(),
+                cursor -> new Entry<>(keyCodec.deserialize(cursor.key()), valueCodec.deserialize(cursor.val())));
+        long start = metrics.start();
+        return stream(spliterator, true).onClose(() -> {
+            RangeSpliterator.closeCursors(spliterator);
+            metrics.record(SCAN, start);
+        });
+    }
+
+    public Stream<K> keys() {
+        return keys(localTxn.get());
+    }
+
+    public Stream<K> keys(Transaction txn) {
+        return records(txn).map(e -> keyCodec.deserialize(e.key()));
+    }
+
+    public Stream<V> values() {
+        return values(localTxn.get());
+    }
+
+    public Stream<V> values(Transaction txn) {
+        return records(txn).map(e -> valueCodec.deserialize(e.val()));
+    }
+
+    //from inclusive, to exclusive
+    public Stream<Entry<K, V>> range(K from, K to) {
+        return range(localTxn.get(), from, to);
+    }
+
+    public Stream<Entry<K, V>> range(Transaction txn, K from, K to) {
+        return entries(txn, KeyRange.closedOpen(bound(txn, from), bound(txn, to)));
+    }
+
+    public Stream<Entry<K, V>> headEntries(K to) {
+        return headEntries(localTxn.get(), to);
+    }
+
+    public Stream<Entry<K, V>> headEntries(Transaction txn, K to) {
+        return entries(txn, KeyRange.lessThan(bound(txn, to)));
+    }
+
+    public Stream<Entry<K, V>> tailEntries(K from) {
+        return tailEntries(localTxn.get(), from);
+    }
+
+    public Stream<Entry<K, V>> tailEntries(Transaction txn, K from) {
+        return entries(txn, KeyRange.atLeast(bound(txn, from)));
+    }
+
+    public Stream<Entry<K, V>> descendingEntries() {
+        return descendingEntries(localTxn.get());
+    }
+
+    public Stream<Entry<K, V>> descendingEntries(Transaction txn) {
+        return entries(txn, KeyRange.allBackward());
+    }
+
+    //only for codecs without a comparator whose encoding of a prefix is a byte prefix of the key, like STRING_CODEC or a
+    //TupleCodec given the leading components
+    public Stream<Entry<K, V>> prefixEntries(K prefix) {
+        return prefixEntries(localTxn.get(), prefix);
+    }
+
+    public Stream<Entry<K, V>> prefixEntries(Transaction txn, K prefix) {
+        if (keyCodec.comparator() != null) {
+            throw new UnsupportedOperationException("Prefix scans need keys ordered by their bytes");
+        }
+        ByteBuffer start = bound(txn, prefix);
+        ByteBuffer end = Ranges.prefixEnd(start);
+        return entries(txn, end == null ? KeyRange.atLeast(start) : KeyRange.closedOpen(start, end));
+    }
+
+    public K firstKey() {
+        return firstKey(localTxn.get());
+    }
+
+    public K firstKey(Transaction txn) {
+        try (Cursor<ByteBuffer> cursor = db.openCursor(txn.lmdbTxn())) {
+            return cursor.first() ? keyCodec.deserialize(cursor.key()) : null;
+        }
+    }
+
+    public K lastKey() {
+        return lastKey(localTxn.get());
+    }
+
+    public K lastKey(Transaction txn) {
+        try (Cursor<ByteBuffer> cursor = db.openCursor(txn.lmdbTxn())) {
+            return cursor.last() ? keyCodec.deserialize(cursor.key()) : null;
+        }
+    }
+
+    //least key greater than or equal to the given key, null if there is none
+    public K ceilingKey(K key) {
+        return ceilingKey(localTxn.get(), key);
+    }
+
+    public K ceilingKey(Transaction txn, K key) {
+        txn.serializeKey(keyCodec, key);
+        try (Cursor<ByteBuffer> cursor = db.openCursor(txn.lmdbTxn())) {
+            return cursor.get(txn.keyBuffer, GetOp.MDB_SET_RANGE) ? keyCodec.deserialize(cursor.key()) : null;
+        }
+    }
+
+    //greatest key less than or equal to the given key, null if there is none
+    public K floorKey(K key) {
+        return floorKey(localTxn.get(), key);
+    }
+
+    public K floorKey(Transaction txn, K key) {
+        txn.serializeKey(keyCodec, key);
+        try (Cursor<ByteBuffer> cursor = db.openCursor(txn.lmdbTxn())) {
+            if (!cursor.get(txn.keyBuffer, GetOp.MDB_SET_RANGE)) {
+                return cursor.last() ? keyCodec.deserialize(cursor.key()) : null;
+            }
+            Comparator<ByteBuffer> comparator = keyCodec.comparator() == null ? Ranges::compareBytes : Ranges.restoringBounds(keyCodec.comparator());
+            if (comparator.compare(cursor.key(), txn.keyBuffer) == 0) {
+                return keyCodec.deserialize(cursor.key());
+            }
+            return cursor.prev() ? keyCodec.deserialize(cursor.key()) : null;
+        }
+    }
+
+    //the value stored under the key in the txn's key buffer, decoded before the page it is in can change
+    private V storedValue(Transaction txn) {
+        ByteBuffer stored = db.get(txn.lmdbTxn(), txn.keyBuffer);
+        return stored == null ? null : valueCodec.deserialize(stored);
+    }
+
+    //the indexes use the key buffer for their own keys, so the primary key is kept in the value buffer meanwhile and
+    //put back after
+    private void updateIndexes(Transaction txn, V oldValue, V newValue) {
+        ByteBuffer primaryKey = txn.valueBuffer;
+        primaryKey.clear();
+        primaryKey.put(txn.keyBuffer.duplicate()).flip();
+        for (LmdbIndex<?, K, V> index : indexes) {
+            index.update(txn, primaryKey, oldValue, newValue);
+        }
+        txn.keyBuffer.clear();
+        txn.keyBuffer.put(primaryKey).flip();
+    }
+
+    private ByteBuffer bound(Transaction txn, K key) {
+        txn.serializeKey(keyCodec, key);
+        return Ranges.copyOf(txn.keyBuffer);
+    }
+
+    private Stream<Entry<K, V>> entries(Transaction txn, KeyRange<ByteBuffer> range) {
+        CursorIterable<ByteBuffer> iterable = db.iterate(txn.lmdbTxn(), range, Ranges.restoringBounds(keyCodec.comparator()));
+        return Metered.scan(stream(spliteratorUnknownSize(iterable.iterator(), Spliterator.ORDERED), false), metrics)
+                .map(e -> new Entry<>(keyCodec.deserialize(e.key()), valueCodec.deserialize(e.val())))
+                .onClose(iterable::close);
+    }
+
+    private Stream<CursorIterable.KeyVal<ByteBuffer>> records(Transaction txn) {
+        CursorIterable<ByteBuffer> iterable = db.iterate(txn.lmdbTxn());
+        return Metered.scan(stream(spliteratorUnknownSize(iterable.iterator(), Spliterator.ORDERED), false).onClose(iterable::close), metrics);
+    }
+
+    //every element is the same view rewrapped, so it must not be held past the next element
+    public <W extends BufferView> Stream<W> valueViews(W view) {
+        return valueViews(localTxn.get(), view);
+    }
+
+    public <W extends BufferView> Stream<W> valueViews(Transaction txn, W view) {
+        return records(txn).map(e -> {
+            view.wrap(e.val());
+            return view;
+        });
+    }
+
+    void addIndex(LmdbIndex<?, K, V> index) {
+        indexes.removeIf(existing -> existing.name().equals(index.name()));
+        indexes.add(index);
+    }
+
+    Transaction localTxn() {
+        return localTxn.get();
+    }
+
+    CollectionMetrics metrics() {
+        return metrics;
+    }
+
+    Dbi<ByteBuffer> db() {
+        return db;
+    }
+
+    Codec<K> keyCodec() {
+        return keyCodec;
+    }
+
+    Codec<V> valueCodec() {
+        return valueCodec;
     }
 }
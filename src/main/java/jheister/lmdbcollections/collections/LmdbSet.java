@@ -1,8 +1,10 @@
 package jheister.lmdbcollections.collections;
 
+import jheister.lmdbcollections.Transaction;
 import jheister.lmdbcollections.codec.Codec.Empty;
 
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class LmdbSet<T> {
     private final LmdbMap<T, Empty> underlying;
@@ -15,17 +17,35 @@ public class LmdbSet<T> {
         underlying.put(value, Empty.INSTANCE);
     }
 
+    public void add(Transaction txn, T value) {
+        underlying.put(txn, value, Empty.INSTANCE);
+    }
+
     public void forEach(Consumer<? super T> consumer) {
-        underlying.entries().forEach(e -> {
-            consumer.accept(e.key);
-        });
+        try (Stream<T> keys = underlying.keys()) {
+            keys.forEach(consumer);
+        }
+    }
+
+    public void forEach(Transaction txn, Consumer<? super T> consumer) {
+        try (Stream<T> keys = underlying.keys(txn)) {
+            keys.forEach(consumer);
+        }
     }
 
     public void clear() {
         underlying.clear();
     }
 
+    public void clear(Transaction txn) {
+        underlying.clear(txn);
+    }
+
     public boolean contains(T value) {
         return underlying.containsKey(value);
     }
+
+    public boolean contains(Transaction txn, T value) {
+        return underlying.containsKey(txn, value);
+    }
 }
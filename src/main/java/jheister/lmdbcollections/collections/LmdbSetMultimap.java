@@ -1,17 +1,27 @@
 package jheister.lmdbcollections.collections;
 
+import jheister.lmdbcollections.CollectionMetrics;
 import jheister.lmdbcollections.LmdbStorageEnvironment.ThreadLocalTransaction;
 import jheister.lmdbcollections.Transaction;
 import jheister.lmdbcollections.codec.Codec;
-import org.lmdbjava.CursorIterator;
+import org.lmdbjava.Cursor;
+import org.lmdbjava.CursorIterable;
 import org.lmdbjava.Dbi;
+import org.lmdbjava.GetOp;
 import org.lmdbjava.KeyRange;
+import org.lmdbjava.SeekOp;
 
 import java.nio.ByteBuffer;
 import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static java.util.Spliterators.spliteratorUnknownSize;
+import static jheister.lmdbcollections.CollectionMetrics.Op.GET;
+import static jheister.lmdbcollections.CollectionMetrics.Op.PUT;
+import static jheister.lmdbcollections.CollectionMetrics.Op.REMOVE;
+import static jheister.lmdbcollections.CollectionMetrics.Op.SCAN;
 import static java.util.stream.StreamSupport.stream;
 
 public class LmdbSetMultimap<K, V> {
@@ -20,36 +30,167 @@ public class LmdbSetMultimap<K, V> {
     private final Codec<K> keyCodec;
     private final Codec<V> valueCodec;
     private final ThreadLocalTransaction localTxn;
+    private final CollectionMetrics metrics;
 
     public LmdbSetMultimap(Dbi<ByteBuffer> db, Codec<K> keyCodec, Codec<V> valueCodec, ThreadLocalTransaction localTxn) {
+        this(db, keyCodec, valueCodec, localTxn, CollectionMetrics.DISABLED);
+    }
+
+    public LmdbSetMultimap(Dbi<ByteBuffer> db, Codec<K> keyCodec, Codec<V> valueCodec, ThreadLocalTransaction localTxn, CollectionMetrics metrics) {
         this.db = db;
         this.keyCodec = keyCodec;
         this.valueCodec = valueCodec;
         this.localTxn = localTxn;
+        this.metrics = metrics;
     }
 
     public void put(K key, V value) {
-        Transaction txn = localTxn.get();
+        put(localTxn.get(), key, value);
+    }
+
+    public void put(Transaction txn, K key, V value) {
+        long start = metrics.start();
         txn.serializeKey(keyCodec, key);
+        //lmdb compares MDB_DUPSORT values on insert so cannot reserve space for one, it is copied from the buffer
         txn.serializeValue(valueCodec, value);
-        db.put(txn.lmdbTxn, txn.keyBuffer, txn.valueBuffer);
+        metrics.encoded(txn.keyBuffer.remaining() + txn.valueBuffer.remaining());
+        db.put(txn.lmdbTxn(), txn.keyBuffer, txn.valueBuffer);
+        metrics.record(PUT, start);
+    }
+
+    //through one cursor, which stays near the key's values between puts
+    public void putAll(K key, Iterable<V> values) {
+        putAll(localTxn.get(), key, values);
+    }
+
+    public void putAll(Transaction txn, K key, Iterable<V> values) {
+        long start = metrics.start();
+        txn.serializeKey(keyCodec, key);
+        try (Cursor<ByteBuffer> cursor = db.openCursor(txn.lmdbTxn())) {
+            for (V value : values) {
+                txn.serializeValue(valueCodec, value);
+                metrics.encoded(txn.keyBuffer.remaining() + txn.valueBuffer.remaining());
+                cursor.put(txn.keyBuffer, txn.valueBuffer);
+            }
+        }
+        metrics.record(PUT, start);
     }
 
     public void remove(K key, V value) {
-        Transaction txn = localTxn.get();
+        remove(localTxn.get(), key, value);
+    }
+
+    public void remove(Transaction txn, K key, V value) {
+        long start = metrics.start();
+        txn.serializeKey(keyCodec, key);
+        txn.serializeValue(valueCodec, value);
+        metrics.encoded(txn.keyBuffer.remaining() + txn.valueBuffer.remaining());
+
+        db.delete(txn.lmdbTxn(), txn.keyBuffer, txn.valueBuffer);
+        metrics.record(REMOVE, start);
+    }
+
+    //deletes every value of the key at once, returns false when it had none
+    public boolean removeAll(K key) {
+        return removeAll(localTxn.get(), key);
+    }
+
+    public boolean removeAll(Transaction txn, K key) {
+        long start = metrics.start();
+        txn.serializeKey(keyCodec, key);
+        metrics.encoded(txn.keyBuffer.remaining());
+        boolean removed = db.delete(txn.lmdbTxn(), txn.keyBuffer);
+        metrics.record(REMOVE, start);
+        return removed;
+    }
+
+    //positions a cursor on the exact pair with MDB_GET_BOTH, so the key's other values are not read
+    public boolean containsEntry(K key, V value) {
+        return containsEntry(localTxn.get(), key, value);
+    }
+
+    public boolean containsEntry(Transaction txn, K key, V value) {
+        long start = metrics.start();
         txn.serializeKey(keyCodec, key);
         txn.serializeValue(valueCodec, value);
+        metrics.encoded(txn.keyBuffer.remaining() + txn.valueBuffer.remaining());
+        boolean found;
+        try (Cursor<ByteBuffer> cursor = db.openCursor(txn.lmdbTxn())) {
+            found = cursor.get(txn.keyBuffer, txn.valueBuffer, SeekOp.MDB_GET_BOTH);
+        }
+        metrics.record(GET, start);
+        return found;
+    }
+
+    //number of values of the key, which lmdb keeps so they are not read
+    public long count(K key) {
+        return count(localTxn.get(), key);
+    }
+
+    public long count(Transaction txn, K key) {
+        long start = metrics.start();
+        txn.serializeKey(keyCodec, key);
+        metrics.encoded(txn.keyBuffer.remaining());
+        long count;
+        try (Cursor<ByteBuffer> cursor = db.openCursor(txn.lmdbTxn())) {
+            count = cursor.get(txn.keyBuffer, GetOp.MDB_SET) ? cursor.count() : 0;
+        }
+        metrics.record(GET, start);
+        return count;
+    }
+
+    //each key once, skipping over its values with MDB_NEXT_NODUP
+    public Stream<K> keys() {
+        return keys(localTxn.get());
+    }
+
+    public Stream<K> keys(Transaction txn) {
+        Cursor<ByteBuffer> cursor = db.openCursor(txn.lmdbTxn());
+        long start = metrics.start();
+        Spliterator<K> keys = new Spliterators.AbstractSpliterator<K>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL) {
+            private boolean started;
 
-        db.delete(txn.lmdbTxn, txn.keyBuffer, txn.valueBuffer);
+            @Override
+            public boolean tryAdvance(Consumer<? super K> action) {
+                boolean found = started ? cursor.seek(SeekOp.MDB_NEXT_NODUP) : cursor.first();
+                started = true;
+                if (!found) {
+                    return false;
+                }
+                metrics.decoded(cursor.key().remaining());
+                action.accept(keyCodec.deserialize(cursor.key()));
+                return true;
+            }
+        };
+        return stream(keys, false).onClose(() -> {
+            cursor.close();
+            metrics.record(SCAN, start);
+        });
     }
 
     public Stream<V> get(K key) {
-        Transaction txn = localTxn.get();
+        return get(localTxn.get(), key);
+    }
+
+    public Stream<V> get(Transaction txn, K key) {
         txn.serializeKey(keyCodec, key);
-        CursorIterator<ByteBuffer> iterator = db.iterate(txn.lmdbTxn, KeyRange.atLeast(txn.keyBuffer));
+        metrics.encoded(txn.keyBuffer.remaining());
+        CursorIterable<ByteBuffer> iterable = db.iterate(txn.lmdbTxn(), KeyRange.atLeast(txn.keyBuffer));
+
+        return Metered.scan(stream(spliteratorUnknownSize(iterable.iterator(), Spliterator.ORDERED), false)
+                .takeWhile(e -> e.key().compareTo(txn.keyBuffer) == 0), metrics)
+                .map(e -> valueCodec.deserialize(e.val())).onClose(iterable::close);
+    }
+
+    Dbi<ByteBuffer> db() {
+        return db;
+    }
+
+    Codec<K> keyCodec() {
+        return keyCodec;
+    }
 
-        return stream(spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
-                .takeWhile(e -> e.key().compareTo(txn.keyBuffer) == 0)
-                .map(e -> valueCodec.deserialize(e.val())).onClose(iterator::close);
+    Codec<V> valueCodec() {
+        return valueCodec;
     }
 }
@@ -1,20 +1,35 @@
 package jheister.lmdbcollections.collections;
 
+import jheister.lmdbcollections.CollectionMetrics;
 import jheister.lmdbcollections.LmdbStorageEnvironment.ThreadLocalTransaction;
 import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.codec.BufferView;
 import jheister.lmdbcollections.codec.Codec;
-import org.lmdbjava.CursorIterator;
+import jheister.lmdbcollections.codec.OrderedBytes;
+import org.lmdbjava.Cursor;
+import org.lmdbjava.CursorIterable;
 import org.lmdbjava.Dbi;
 import org.lmdbjava.Env;
+import org.lmdbjava.GetOp;
 import org.lmdbjava.KeyRange;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Spliterator;
 import java.util.stream.Stream;
 
 import static java.util.Spliterators.spliteratorUnknownSize;
+import static jheister.lmdbcollections.CollectionMetrics.Op.GET;
+import static jheister.lmdbcollections.CollectionMetrics.Op.PUT;
+import static jheister.lmdbcollections.CollectionMetrics.Op.REMOVE;
+import static jheister.lmdbcollections.CollectionMetrics.Op.SCAN;
 import static java.util.stream.StreamSupport.stream;
 import static org.lmdbjava.DbiFlags.MDB_CREATE;
 
@@ -24,58 +39,329 @@ public class LmdbTable<R, C, V> {
     private final Codec<C> colKeyCodec;
     private final Codec<V> codec;
     private final ThreadLocalTransaction localTxn;
+    private final KeyLayout keyLayout;
+    private final CollectionMetrics metrics;
 
     public LmdbTable(Dbi<ByteBuffer> db, Codec<R> rowKeyCodec, Codec<C> colKeyCodec, Codec<V> codec, ThreadLocalTransaction localTxn) {
+        this(db, rowKeyCodec, colKeyCodec, codec, localTxn, KeyLayout.LENGTH_PREFIXED);
+    }
+
+    public LmdbTable(Dbi<ByteBuffer> db, Codec<R> rowKeyCodec, Codec<C> colKeyCodec, Codec<V> codec, ThreadLocalTransaction localTxn, KeyLayout keyLayout) {
+        this(db, rowKeyCodec, colKeyCodec, codec, localTxn, keyLayout, CollectionMetrics.DISABLED);
+    }
+
+    public LmdbTable(Dbi<ByteBuffer> db, Codec<R> rowKeyCodec, Codec<C> colKeyCodec, Codec<V> codec, ThreadLocalTransaction localTxn, KeyLayout keyLayout, CollectionMetrics metrics) {
         this.db = db;
         this.rowKeyCodec = rowKeyCodec;
         this.colKeyCodec = colKeyCodec;
         this.codec = codec;
         this.localTxn = localTxn;
+        this.keyLayout = keyLayout;
+        this.metrics = metrics;
     }
 
     public void put(R rowKey, C colKey, V value) {
-        Transaction txn = localTxn.get();
+        put(localTxn.get(), rowKey, colKey, value);
+    }
+
+    public void put(Transaction txn, R rowKey, C colKey, V value) {
+        long start = metrics.start();
         fillKeyBuffer(txn.keyBuffer, rowKey, colKey);
 
-        txn.serializeValue(codec, value);
-        db.put(txn.lmdbTxn, txn.keyBuffer, txn.valueBuffer);
+        metrics.encoded(txn.keyBuffer.remaining() + ReservedPut.put(db, txn, codec, value));
+        metrics.record(PUT, start);
     }
 
     public V get(R rowKey, C colKey) {
-        Transaction txn = localTxn.get();
+        return get(localTxn.get(), rowKey, colKey);
+    }
+
+    public V get(Transaction txn, R rowKey, C colKey) {
+        long start = metrics.start();
+        fillKeyBuffer(txn.keyBuffer, rowKey, colKey);
+        metrics.encoded(txn.keyBuffer.remaining());
+
+        ByteBuffer valueBuffer = db.get(txn.lmdbTxn(), txn.keyBuffer);
+        if (valueBuffer == null) {
+            metrics.record(GET, start);
+            return null;
+        }
+        metrics.decoded(valueBuffer.remaining());
+        V value = codec.deserialize(valueBuffer);
+        metrics.record(GET, start);
+        return value;
+    }
+
+    //read-only view of the stored value in lmdb's page (an overflow page for large values), null when absent.
+    //valid until the txn ends or, in a write txn, until the table is next written
+    public ByteBuffer getBuffer(R rowKey, C colKey) {
+        return getBuffer(localTxn.get(), rowKey, colKey);
+    }
+
+    public ByteBuffer getBuffer(Transaction txn, R rowKey, C colKey) {
+        long start = metrics.start();
+        fillKeyBuffer(txn.keyBuffer, rowKey, colKey);
+        metrics.encoded(txn.keyBuffer.remaining());
+        ByteBuffer valueBuffer = db.get(txn.lmdbTxn(), txn.keyBuffer);
+        metrics.record(GET, start);
+        return valueBuffer == null ? null : valueBuffer.asReadOnlyBuffer();
+    }
+
+    //wraps the stored value in the given view instead of deserializing it, returns null when absent
+    public <W extends BufferView> W getView(R rowKey, C colKey, W view) {
+        return getView(localTxn.get(), rowKey, colKey, view);
+    }
+
+    public <W extends BufferView> W getView(Transaction txn, R rowKey, C colKey, W view) {
+        long start = metrics.start();
         fillKeyBuffer(txn.keyBuffer, rowKey, colKey);
+        metrics.encoded(txn.keyBuffer.remaining());
 
-        ByteBuffer valueBuffer = db.get(txn.lmdbTxn, txn.keyBuffer);
+        ByteBuffer valueBuffer = db.get(txn.lmdbTxn(), txn.keyBuffer);
+        metrics.record(GET, start);
         if (valueBuffer == null) {
             return null;
         }
-        return codec.deserialize(valueBuffer);
+        view.wrap(valueBuffer);
+        return view;
+    }
+
+    //values in the order of the given columns, null where a column is absent
+    public List<V> getAll(R rowKey, Collection<C> colKeys) {
+        return getAll(localTxn.get(), rowKey, colKeys);
+    }
+
+    public List<V> getAll(Transaction txn, R rowKey, Collection<C> colKeys) {
+        List<V> values = new ArrayList<>(Collections.nCopies(colKeys.size(), null));
+        List<byte[]> keys = MultiGet.serializeKeys(colKeys, txn.keyBuffer, (colKey, target) -> serializeKey(target, rowKey, colKey));
+        MultiGet.lookup(db, txn, keys, keyComparator(), false, (index, value) -> values.set(index, codec.deserialize(value)));
+        return values;
+    }
+
+    //only present columns, iterating in the order of the given columns
+    public Map<C, V> getAllAsMap(R rowKey, Collection<C> colKeys) {
+        return getAllAsMap(localTxn.get(), rowKey, colKeys);
+    }
+
+    public Map<C, V> getAllAsMap(Transaction txn, R rowKey, Collection<C> colKeys) {
+        List<C> colList = new ArrayList<>(colKeys);
+        List<V> values = getAll(txn, rowKey, colList);
+        Map<C, V> result = new LinkedHashMap<>();
+        for (int i = 0; i < colList.size(); i++) {
+            if (values.get(i) != null) {
+                result.put(colList.get(i), values.get(i));
+            }
+        }
+        return result;
     }
 
     public boolean containsRow(R rowKey) {
+        return containsRow(localTxn.get(), rowKey);
+    }
+
+    public boolean containsRow(Transaction txn, R rowKey) {
         //todo: optimize
-        return rowEntries(rowKey).iterator().hasNext();
+        try (Stream<CursorIterable.KeyVal<ByteBuffer>> records = rowRecords(txn, rowKey)) {
+            return records.findFirst().isPresent();
+        }
     }
 
     public void remove(R rowKey, C colKey) {
-        Transaction txn = localTxn.get();
+        remove(localTxn.get(), rowKey, colKey);
+    }
+
+    public void remove(Transaction txn, R rowKey, C colKey) {
+        long start = metrics.start();
         fillKeyBuffer(txn.keyBuffer, rowKey, colKey);
+        metrics.encoded(txn.keyBuffer.remaining());
 
-        db.delete(txn.lmdbTxn, txn.keyBuffer);
+        db.delete(txn.lmdbTxn(), txn.keyBuffer);
+        metrics.record(REMOVE, start);
     }
 
-    //todo: cleanup duplication splitting ByteBuffer into row / col buffers
     public Stream<TableEntry<R, C, V>> rowEntries(R rowKey) {
-        Transaction txn = localTxn.get();
+        return rowEntries(localTxn.get(), rowKey);
+    }
+
+    public Stream<TableEntry<R, C, V>> rowEntries(Transaction txn, R rowKey) {
+        return rowRecords(txn, rowKey).map(this::entryFor);
+    }
+
+    //entries decode their fields on first access, which has to happen before the stream advances
+    public Stream<LazyTableEntry<R, C, V>> lazyRowEntries(R rowKey) {
+        return lazyRowEntries(localTxn.get(), rowKey);
+    }
+
+    public Stream<LazyTableEntry<R, C, V>> lazyRowEntries(Transaction txn, R rowKey) {
+        LazyRecord.Position position = new LazyRecord.Position();
+        return rowRecords(txn, rowKey).map(e -> new LazyTableEntry<>(position.advance(), e.key(), e.val(), this));
+    }
+
+    public Stream<C> columnKeys(R rowKey) {
+        return columnKeys(localTxn.get(), rowKey);
+    }
+
+    public Stream<C> columnKeys(Transaction txn, R rowKey) {
+        return rowRecords(txn, rowKey).map(e -> colKeyFor(e.key()));
+    }
+
+    //columns from inclusive, to exclusive
+    public Stream<TableEntry<R, C, V>> rowRange(R rowKey, C fromColKey, C toColKey) {
+        return rowRange(localTxn.get(), rowKey, fromColKey, toColKey);
+    }
+
+    public Stream<TableEntry<R, C, V>> rowRange(Transaction txn, R rowKey, C fromColKey, C toColKey) {
+        KeyRange<ByteBuffer> range = KeyRange.closedOpen(bound(txn, rowKey, fromColKey), bound(txn, rowKey, toColKey));
+        return entries(txn, range);
+    }
+
+    //only for tables whose keys are ordered by their bytes, as the end of a row is found by incrementing its prefix
+    public Stream<TableEntry<R, C, V>> descendingRowEntries(R rowKey) {
+        return descendingRowEntries(localTxn.get(), rowKey);
+    }
+
+    public Stream<TableEntry<R, C, V>> descendingRowEntries(Transaction txn, R rowKey) {
+        if (keyComparator() != null) {
+            throw new UnsupportedOperationException("Descending row scans need keys ordered by their bytes");
+        }
+        ByteBuffer rowStart = rowBound(txn, rowKey);
+        //both layouts start every row prefix with a byte below 0xFF, so an end always exists
+        ByteBuffer rowEnd = Ranges.prefixEnd(rowStart);
+        return entries(txn, KeyRange.openClosedBackward(rowEnd, rowStart));
+    }
+
+    //rows from inclusive, to exclusive, in the table's key order. a row's own key is the least key of the row in both
+    //layouts, so it bounds the rows the same way a full key bounds entries
+    public Stream<TableEntry<R, C, V>> rowsRange(R fromRowKey, R toRowKey) {
+        return rowsRange(localTxn.get(), fromRowKey, toRowKey);
+    }
+
+    public Stream<TableEntry<R, C, V>> rowsRange(Transaction txn, R fromRowKey, R toRowKey) {
+        return entries(txn, KeyRange.closedOpen(rowBound(txn, fromRowKey), rowBound(txn, toRowKey)));
+    }
+
+    public Stream<TableEntry<R, C, V>> headRowEntries(R toRowKey) {
+        return headRowEntries(localTxn.get(), toRowKey);
+    }
+
+    public Stream<TableEntry<R, C, V>> headRowEntries(Transaction txn, R toRowKey) {
+        return entries(txn, KeyRange.lessThan(rowBound(txn, toRowKey)));
+    }
+
+    public Stream<TableEntry<R, C, V>> tailRowEntries(R fromRowKey) {
+        return tailRowEntries(localTxn.get(), fromRowKey);
+    }
+
+    public Stream<TableEntry<R, C, V>> tailRowEntries(Transaction txn, R fromRowKey) {
+        return entries(txn, KeyRange.atLeast(rowBound(txn, fromRowKey)));
+    }
+
+    public Stream<TableEntry<R, C, V>> descendingEntries() {
+        return descendingEntries(localTxn.get());
+    }
+
+    public Stream<TableEntry<R, C, V>> descendingEntries(Transaction txn) {
+        return entries(txn, KeyRange.allBackward());
+    }
+
+    public R firstRowKey() {
+        return firstRowKey(localTxn.get());
+    }
+
+    public R firstRowKey(Transaction txn) {
+        try (Cursor<ByteBuffer> cursor = db.openCursor(txn.lmdbTxn())) {
+            return cursor.first() ? rowKeyFor(cursor.key()) : null;
+        }
+    }
+
+    public R lastRowKey() {
+        return lastRowKey(localTxn.get());
+    }
+
+    public R lastRowKey(Transaction txn) {
+        try (Cursor<ByteBuffer> cursor = db.openCursor(txn.lmdbTxn())) {
+            return cursor.last() ? rowKeyFor(cursor.key()) : null;
+        }
+    }
+
+    //least row key greater than or equal to the given row key, null if there is none
+    public R ceilingRowKey(R rowKey) {
+        return ceilingRowKey(localTxn.get(), rowKey);
+    }
+
+    public R ceilingRowKey(Transaction txn, R rowKey) {
+        fillRowKeyBuffer(txn.keyBuffer, rowKey);
+        try (Cursor<ByteBuffer> cursor = db.openCursor(txn.lmdbTxn())) {
+            return cursor.get(txn.keyBuffer, GetOp.MDB_SET_RANGE) ? rowKeyFor(cursor.key()) : null;
+        }
+    }
+
+    //greatest row key less than or equal to the given row key, null if there is none
+    public R floorRowKey(R rowKey) {
+        return floorRowKey(localTxn.get(), rowKey);
+    }
+
+    public R floorRowKey(Transaction txn, R rowKey) {
+        fillRowKeyBuffer(txn.keyBuffer, rowKey);
+        try (Cursor<ByteBuffer> cursor = db.openCursor(txn.lmdbTxn())) {
+            if (!cursor.get(txn.keyBuffer, GetOp.MDB_SET_RANGE)) {
+                return cursor.last() ? rowKeyFor(cursor.key()) : null;
+            }
+            Comparator<ByteBuffer> comparator = keyComparator() == null ? Ranges::compareBytes : Ranges.restoringBounds(keyComparator());
+            if (comparator.compare(rowPrefixOf(cursor.key()), txn.keyBuffer) == 0) {
+                return rowKeyFor(cursor.key());
+            }
+            return cursor.prev() ? rowKeyFor(cursor.key()) : null;
+        }
+    }
+
+    private ByteBuffer rowBound(Transaction txn, R rowKey) {
+        fillRowKeyBuffer(txn.keyBuffer, rowKey);
+        return Ranges.copyOf(txn.keyBuffer);
+    }
+
+    //the row key part of a key, which compares to a row key on its own like the whole key's row does
+    private ByteBuffer rowPrefixOf(ByteBuffer key) {
+        int position = key.position();
+        if (keyLayout == KeyLayout.TERMINATED) {
+            OrderedBytes.unescape(key, false);
+        } else {
+            key.position(position + 4 + key.getInt(position));
+        }
+        ByteBuffer prefix = key.duplicate();
+        prefix.limit(key.position()).position(position);
+        key.position(position);
+        return prefix;
+    }
+
+    private ByteBuffer bound(Transaction txn, R rowKey, C colKey) {
+        txn.keyBuffer.clear();
+        serializeKey(txn.keyBuffer, rowKey, colKey);
+        txn.keyBuffer.flip();
+        return Ranges.copyOf(txn.keyBuffer);
+    }
+
+    private Stream<TableEntry<R, C, V>> entries(Transaction txn, KeyRange<ByteBuffer> range) {
+        CursorIterable<ByteBuffer> iterable = db.iterate(txn.lmdbTxn(), range, Ranges.restoringBounds(keyComparator()));
+        return Metered.scan(stream(spliteratorUnknownSize(iterable.iterator(), Spliterator.ORDERED), false), metrics)
+                .map(this::entryFor)
+                .onClose(iterable::close);
+    }
+
+    //todo: cleanup duplication splitting ByteBuffer into row / col buffers
+    private Stream<CursorIterable.KeyVal<ByteBuffer>> rowRecords(Transaction txn, R rowKey) {
+        if (keyLayout == KeyLayout.TERMINATED) {
+            return terminatedRowRecords(txn, rowKey);
+        }
         txn.keyBuffer.clear();
         fillRowKey(txn.keyBuffer, rowKey);
         txn.keyBuffer.flip();
 
-        CursorIterator<ByteBuffer> iterator = db.iterate(txn.lmdbTxn, KeyRange.atLeast(txn.keyBuffer));
+        CursorIterable<ByteBuffer> iterable = db.iterate(txn.lmdbTxn(), KeyRange.atLeast(txn.keyBuffer));
 
         Comparator<ByteBuffer> comparator = rowKeyCodec.comparator() == null ? Comparator.naturalOrder() : rowKeyCodec.comparator();
 
-        return stream(spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+        return Metered.scan(stream(spliteratorUnknownSize(iterable.iterator(), Spliterator.ORDERED), false)
                 .takeWhile(e -> {
                     ByteBuffer key = e.key();
                     int len = key.remaining();
@@ -88,44 +374,148 @@ public class LmdbTable<R, C, V> {
                     key.rewind().limit(len);
                     return stillWanted;
                 })
-                .map(this::entryFor).onClose(iterator::close);
+                .onClose(iterable::close), metrics);
+    }
+
+    private Stream<CursorIterable.KeyVal<ByteBuffer>> terminatedRowRecords(Transaction txn, R rowKey) {
+        txn.keyBuffer.clear();
+        fillRowKey(txn.keyBuffer, rowKey);
+        txn.keyBuffer.flip();
+
+        byte[] prefix = new byte[txn.keyBuffer.remaining()];
+        txn.keyBuffer.duplicate().get(prefix);
+
+        CursorIterable<ByteBuffer> iterable = db.iterate(txn.lmdbTxn(), KeyRange.atLeast(txn.keyBuffer));
+
+        return Metered.scan(stream(spliteratorUnknownSize(iterable.iterator(), Spliterator.ORDERED), false)
+                .takeWhile(e -> startsWith(e.key(), prefix))
+                .onClose(iterable::close), metrics);
+    }
+
+    private static boolean startsWith(ByteBuffer key, byte[] prefix) {
+        if (key.remaining() < prefix.length) {
+            return false;
+        }
+        int start = key.position();
+        for (int i = 0; i < prefix.length; i++) {
+            if (key.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public Stream<TableEntry<R, C, V>> entries() {
-        Transaction txn = localTxn.get();
+        return entries(localTxn.get());
+    }
+
+    public Stream<TableEntry<R, C, V>> entries(Transaction txn) {
+        return records(txn).map(this::entryFor);
+    }
 
-        CursorIterator<ByteBuffer> iterator = db.iterate(txn.lmdbTxn);
+    //entries decode their fields on first access, which has to happen before the stream advances
+    public Stream<LazyTableEntry<R, C, V>> lazyEntries() {
+        return lazyEntries(localTxn.get());
+    }
 
-        return stream(spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
-                .map(this::entryFor)
-                .onClose(iterator::close);
+    public Stream<LazyTableEntry<R, C, V>> lazyEntries(Transaction txn) {
+        LazyRecord.Position position = new LazyRecord.Position();
+        return records(txn).map(e -> new LazyTableEntry<>(position.advance(), e.key(), e.val(), this));
     }
 
-    private TableEntry<R, C, V> entryFor(CursorIterator.KeyVal<ByteBuffer> e) {
-        int len = e.key().remaining();
-        int rowKeyLen = e.key().getInt();
-        e.key().limit(rowKeyLen + 4);
-        R rowKey = rowKeyCodec.deserialize(e.key());
-        e.key().limit(len);
-        e.key().position(rowKeyLen + 4);
-        C colKey = colKeyCodec.deserialize(e.key());
+    //splits the key space across the stream's workers, all reading the current read transaction's snapshot. lmdb
+    //only allows that for read transactions of an env opened with noTls(), a thread bound read transaction is
+    //refused, as are write transactions, which lmdb never lets other threads use
+    public Stream<TableEntry<R, C, V>> parallelEntries() {
+        return parallelEntries(localTxn.get());
+    }
 
-        return new TableEntry<>(
-                rowKey,
-                colKey,
-                codec.deserialize(e.val())
-        );
+    public Stream<TableEntry<R, C, V>> parallelEntries(Transaction txn) {
+        RangeSpliterator.checkShareable(txn);
+        RangeSpliterator<TableEntry<R, C, V>> spliterator = RangeSpliterator.over(db, txn.lmdbTxn(), keyComparator(),
+                cursor -> new TableEntry<>(rowKeyFor(cursor.key()), colKeyFor(cursor.key()), codec.deserialize(cursor.val())));
+        long start = metrics.start();
+        return stream(spliterator, true).onClose(() -> {
+            RangeSpliterator.closeCursors(spliterator);
+            metrics.record(SCAN, start);
+        });
+    }
+
+    private Stream<CursorIterable.KeyVal<ByteBuffer>> records(Transaction txn) {
+        CursorIterable<ByteBuffer> iterable = db.iterate(txn.lmdbTxn());
+
+        return Metered.scan(stream(spliteratorUnknownSize(iterable.iterator(), Spliterator.ORDERED), false)
+                .onClose(iterable::close), metrics);
+    }
+
+    private TableEntry<R, C, V> entryFor(CursorIterable.KeyVal<ByteBuffer> e) {
+        return new TableEntry<>(rowKeyFor(e.key()), colKeyFor(e.key()), codec.deserialize(e.val()));
+    }
+
+    //both decoders leave the key buffer as they found it so fields can be decoded in any order
+    R rowKeyFor(ByteBuffer key) {
+        int position = key.position();
+        int limit = key.limit();
+        R rowKey;
+        if (keyLayout == KeyLayout.TERMINATED) {
+            rowKey = rowKeyCodec.deserialize(OrderedBytes.unescape(key, false));
+        } else {
+            int rowKeyLen = key.getInt(position);
+            key.limit(position + 4 + rowKeyLen).position(position + 4);
+            rowKey = rowKeyCodec.deserialize(key);
+        }
+        key.limit(limit).position(position);
+        return rowKey;
+    }
+
+    C colKeyFor(ByteBuffer key) {
+        int position = key.position();
+        if (keyLayout == KeyLayout.TERMINATED) {
+            OrderedBytes.unescape(key, false);
+        } else {
+            key.position(position + 4 + key.getInt(position));
+        }
+        C colKey = colKeyCodec.deserialize(key);
+        key.position(position);
+        return colKey;
+    }
+
+    Dbi<ByteBuffer> db() {
+        return db;
+    }
+
+    Codec<V> valueCodec() {
+        return codec;
+    }
+
+    Comparator<ByteBuffer> keyComparator() {
+        return keyLayout == KeyLayout.TERMINATED ? null : constructComparator(rowKeyCodec.comparator(), colKeyCodec.comparator());
+    }
+
+    //expects a cleared buffer
+    void serializeKey(ByteBuffer target, R rowKey, C colKey) {
+        fillRowKey(target, rowKey);
+        colKeyCodec.serialize(colKey, target);
     }
 
     private void fillKeyBuffer(ByteBuffer keyBuffer, R rowKey, C colKey) {
         keyBuffer.clear();
+        serializeKey(keyBuffer, rowKey, colKey);
+        keyBuffer.flip();
+    }
 
+    private void fillRowKeyBuffer(ByteBuffer keyBuffer, R rowKey) {
+        keyBuffer.clear();
         fillRowKey(keyBuffer, rowKey);
-        colKeyCodec.serialize(colKey, keyBuffer);
         keyBuffer.flip();
     }
 
     private void fillRowKey(ByteBuffer keyBuffer, R rowKey) {
+        if (keyLayout == KeyLayout.TERMINATED) {
+            rowKeyCodec.serialize(rowKey, keyBuffer);
+            OrderedBytes.escape(keyBuffer, 0, false);
+            return;
+        }
         keyBuffer.position(4);
         rowKeyCodec.serialize(rowKey, keyBuffer);
         int rowKeySize = keyBuffer.position() - 4;
@@ -138,7 +528,37 @@ public class LmdbTable<R, C, V> {
                                                       Codec<R> rowCodec,
                                                       Codec<C> colCodec,
                                                       Codec<V> valCodec) {
-        return new LmdbTable<>(env.openDbi(name, constructComparator(rowCodec.comparator(), colCodec.comparator()), MDB_CREATE), rowCodec, colCodec, valCodec, threadLocalTransaction);
+        return create(env, name, threadLocalTransaction, rowCodec, colCodec, valCodec, KeyLayout.LENGTH_PREFIXED);
+    }
+
+    public static <R, C, V> LmdbTable<R, C, V> create(Env<ByteBuffer> env,
+                                                      String name,
+                                                      ThreadLocalTransaction threadLocalTransaction,
+                                                      Codec<R> rowCodec,
+                                                      Codec<C> colCodec,
+                                                      Codec<V> valCodec,
+                                                      KeyLayout keyLayout) {
+        return create(env, name, threadLocalTransaction, rowCodec, colCodec, valCodec, keyLayout, CollectionMetrics.DISABLED);
+    }
+
+    public static <R, C, V> LmdbTable<R, C, V> create(Env<ByteBuffer> env,
+                                                      String name,
+                                                      ThreadLocalTransaction threadLocalTransaction,
+                                                      Codec<R> rowCodec,
+                                                      Codec<C> colCodec,
+                                                      Codec<V> valCodec,
+                                                      KeyLayout keyLayout,
+                                                      CollectionMetrics metrics) {
+        Comparator<ByteBuffer> comparator;
+        if (keyLayout == KeyLayout.TERMINATED) {
+            if (rowCodec.comparator() != null || colCodec.comparator() != null) {
+                throw new IllegalArgumentException("Terminated key layout needs row and column codecs which are ordered by their bytes");
+            }
+            comparator = null;
+        } else {
+            comparator = constructComparator(rowCodec.comparator(), colCodec.comparator());
+        }
+        return new LmdbTable<>(env.openDbi(name, comparator, MDB_CREATE), rowCodec, colCodec, valCodec, threadLocalTransaction, keyLayout, metrics);
     }
 
     private static Comparator<ByteBuffer> constructComparator(Comparator<ByteBuffer> providedRowComparator, Comparator<ByteBuffer> providedColComparator) {
@@ -175,6 +595,13 @@ public class LmdbTable<R, C, V> {
         }
     }
 
+    public enum KeyLayout {
+        //4 byte row key length, row key, column key. Needs a java comparator to order rows unless all row keys are the same length
+        LENGTH_PREFIXED,
+        //escaped row key with a terminator (see OrderedBytes), column key. Ordered by row then column under plain memcmp
+        TERMINATED
+    }
+
     public static class TableEntry<R, C, V> {
         public final R rowKey;
         public final C colKey;
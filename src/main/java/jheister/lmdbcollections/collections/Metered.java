@@ -0,0 +1,25 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.CollectionMetrics;
+import org.lmdbjava.CursorIterable;
+
+import java.nio.ByteBuffer;
+import java.util.stream.Stream;
+
+import static jheister.lmdbcollections.CollectionMetrics.Op.SCAN;
+
+class Metered {
+    private Metered() {
+    }
+
+    //times the scan from here until the stream is closed and counts the bytes of every record read
+    static Stream<CursorIterable.KeyVal<ByteBuffer>> scan(Stream<CursorIterable.KeyVal<ByteBuffer>> records, CollectionMetrics metrics) {
+        if (!metrics.enabled()) {
+            return records;
+        }
+        long start = metrics.start();
+        return records
+                .peek(e -> metrics.decoded(e.key().remaining() + e.val().remaining()))
+                .onClose(() -> metrics.record(SCAN, start));
+    }
+}
@@ -0,0 +1,71 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.Transaction;
+import org.lmdbjava.Cursor;
+import org.lmdbjava.Dbi;
+import org.lmdbjava.GetOp;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+//looks keys up in sorted order through one cursor. lmdb checks the cursor's current leaf page before
+//searching from the root so keys close to each other avoid a full descent
+final class MultiGet {
+    private MultiGet() {
+    }
+
+    interface Found {
+        void accept(int index, ByteBuffer value);
+    }
+
+    interface KeySerializer<T> {
+        void serialize(T key, ByteBuffer target);
+    }
+
+    static <T> List<byte[]> serializeKeys(Iterable<T> keys, ByteBuffer scratch, KeySerializer<T> serializer) {
+        List<byte[]> serialized = new ArrayList<>();
+        for (T key : keys) {
+            scratch.clear();
+            serializer.serialize(key, scratch);
+            scratch.flip();
+            byte[] bytes = new byte[scratch.remaining()];
+            scratch.get(bytes);
+            serialized.add(bytes);
+        }
+        return serialized;
+    }
+
+    //returns false when stopAtMissing is set and a key was not found
+    static boolean lookup(Dbi<ByteBuffer> db,
+                          Transaction txn,
+                          List<byte[]> keys,
+                          Comparator<ByteBuffer> comparator,
+                          boolean stopAtMissing,
+                          Found found) {
+        Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        if (comparator == null) {
+            Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(keys.get(a), keys.get(b)));
+        } else {
+            Arrays.sort(order, (a, b) -> comparator.compare(ByteBuffer.wrap(keys.get(a)), ByteBuffer.wrap(keys.get(b))));
+        }
+
+        try (Cursor<ByteBuffer> cursor = db.openCursor(txn.lmdbTxn())) {
+            for (int index : order) {
+                txn.keyBuffer.clear();
+                txn.keyBuffer.put(keys.get(index)).flip();
+                if (cursor.get(txn.keyBuffer, GetOp.MDB_SET_KEY)) {
+                    found.accept(index, cursor.val());
+                } else if (stopAtMissing) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
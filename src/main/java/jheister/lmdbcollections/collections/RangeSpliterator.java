@@ -0,0 +1,180 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.Transaction;
+import org.lmdbjava.Cursor;
+import org.lmdbjava.Dbi;
+import org.lmdbjava.GetOp;
+import org.lmdbjava.Txn;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+//splits a dbi at keys found by seeking to the byte midpoint of a range, so parallel streams scan disjoint key
+//ranges. every split opens its own cursor on the same read only txn, so the txn has to be one lmdb lets other
+//threads use: a read txn of an MDB_NOTLS env. the entry count from stat halves with each split
+class RangeSpliterator<T> implements Spliterator<T> {
+    private static final long MIN_SPLIT_SIZE = 256;
+
+    private final Scan<T> scan;
+    private byte[] lo;
+    private final byte[] hi;
+    private final ByteBuffer hiBuffer;
+    private long estimatedSize;
+    private Cursor<ByteBuffer> cursor;
+    private boolean exhausted;
+
+    private RangeSpliterator(Scan<T> scan, byte[] lo, byte[] hi, long estimatedSize) {
+        this.scan = scan;
+        this.lo = lo;
+        this.hi = hi;
+        this.hiBuffer = hi == null ? null : buffer(hi);
+        this.estimatedSize = estimatedSize;
+    }
+
+    static <T> RangeSpliterator<T> over(Dbi<ByteBuffer> db,
+                                        Txn<ByteBuffer> txn,
+                                        Comparator<ByteBuffer> comparator,
+                                        Function<Cursor<ByteBuffer>, T> decoder) {
+        Scan<T> scan = new Scan<>(db, txn, comparator == null ? Ranges::compareBytes : comparator, decoder);
+        return new RangeSpliterator<>(scan, null, null, db.stat(txn).entries);
+    }
+
+    static void checkShareable(Transaction txn) {
+        if (!txn.lmdbTxn().isReadOnly()) {
+            throw new IllegalArgumentException("Parallel scans need a read txn, a write txn can only be used by its own thread");
+        }
+        if (!txn.isReadableFromAnyThread()) {
+            throw new IllegalStateException("Parallel scans read one txn from several threads, which needs an env opened with noTls()");
+        }
+    }
+
+    //cursors of splits abandoned by a short circuiting stream are closed here
+    static void closeCursors(RangeSpliterator<?> root) {
+        for (Cursor<ByteBuffer> cursor : root.scan.cursors) {
+            cursor.close();
+        }
+        root.scan.cursors.clear();
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (exhausted) {
+            return false;
+        }
+        boolean found;
+        if (cursor == null) {
+            cursor = scan.db.openCursor(scan.txn);
+            scan.cursors.add(cursor);
+            found = lo == null ? cursor.first() : cursor.get(buffer(lo), GetOp.MDB_SET_RANGE);
+        } else {
+            found = cursor.next();
+        }
+        if (!found || (hi != null && scan.compare(cursor.key(), hiBuffer) >= 0)) {
+            exhausted = true;
+            scan.cursors.remove(cursor);
+            cursor.close();
+            return false;
+        }
+        action.accept(scan.decoder.apply(cursor));
+        return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (cursor != null || estimatedSize < MIN_SPLIT_SIZE) {
+            return null;
+        }
+        try (Cursor<ByteBuffer> probe = scan.db.openCursor(scan.txn)) {
+            byte[] first = lo != null ? lo : (probe.first() ? bytes(probe.key()) : null);
+            byte[] last = hi != null ? hi : (probe.last() ? bytes(probe.key()) : null);
+            if (first == null || last == null) {
+                return null;
+            }
+            if (!probe.get(buffer(midpoint(first, last)), GetOp.MDB_SET_RANGE)) {
+                return null;
+            }
+            //comparator dbis do not sort by bytes, so the midpoint only splits if it landed inside the range
+            if (scan.compare(probe.key(), buffer(first)) <= 0 || (hi != null && scan.compare(probe.key(), hiBuffer) >= 0)) {
+                return null;
+            }
+            byte[] split = bytes(probe.key());
+            RangeSpliterator<T> prefix = new RangeSpliterator<>(scan, lo, split, estimatedSize / 2);
+            lo = split;
+            estimatedSize -= prefix.estimatedSize;
+            return prefix;
+        }
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimatedSize;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    //midpoint of the two keys read as base 256 fractions
+    static byte[] midpoint(byte[] a, byte[] b) {
+        int length = Math.max(a.length, b.length) + 1;
+        int[] sum = new int[length];
+        for (int i = length - 1, carry = 0; i >= 0; i--) {
+            int digit = (i < a.length ? a[i] & 0xFF : 0) + (i < b.length ? b[i] & 0xFF : 0) + carry;
+            sum[i] = digit & 0xFF;
+            carry = digit >>> 8;
+            if (i == 0) {
+                sum[0] |= carry << 8;
+            }
+        }
+        byte[] mid = new byte[length];
+        for (int i = 0, remainder = 0; i < length; i++) {
+            int value = (remainder << 8) | sum[i];
+            mid[i] = (byte) (value >>> 1);
+            remainder = value & 1;
+        }
+        return mid;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private static ByteBuffer buffer(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return buffer;
+    }
+
+    private static final class Scan<T> {
+        final Dbi<ByteBuffer> db;
+        final Txn<ByteBuffer> txn;
+        final Comparator<ByteBuffer> comparator;
+        final Function<Cursor<ByteBuffer>, T> decoder;
+        final List<Cursor<ByteBuffer>> cursors = new CopyOnWriteArrayList<>();
+
+        Scan(Dbi<ByteBuffer> db, Txn<ByteBuffer> txn, Comparator<ByteBuffer> comparator, Function<Cursor<ByteBuffer>, T> decoder) {
+            this.db = db;
+            this.txn = txn;
+            this.comparator = comparator;
+            this.decoder = decoder;
+        }
+
+        //some comparators move buffer positions, the cursor's key has to be intact for decoding
+        int compare(ByteBuffer key, ByteBuffer bound) {
+            int position = key.position();
+            int limit = key.limit();
+            bound.clear();
+            int result = comparator.compare(key, bound);
+            key.limit(limit).position(position);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package jheister.lmdbcollections.collections;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+
+//helpers for handing key ranges to lmdbjava, whose iterators compare the cursor's key against the bounds
+final class Ranges {
+    private Ranges() {
+    }
+
+    //codec comparators read with relative gets. lmdbjava hands the cursor's key straight to the caller after
+    //comparing it, and compares the same bound buffers again for every entry, so both must be left as found
+    static Comparator<ByteBuffer> restoringBounds(Comparator<ByteBuffer> comparator) {
+        if (comparator == null) {
+            return null;
+        }
+        return (a, b) -> {
+            int aPosition = a.position();
+            int aLimit = a.limit();
+            int bPosition = b.position();
+            int bLimit = b.limit();
+            int result = comparator.compare(a, b);
+            a.limit(aLimit).position(aPosition);
+            b.limit(bLimit).position(bPosition);
+            return result;
+        };
+    }
+
+    //the order lmdb uses for keys without a custom comparator
+    static int compareBytes(ByteBuffer a, ByteBuffer b) {
+        int length = Math.min(a.remaining(), b.remaining());
+        for (int i = 0; i < length; i++) {
+            int cmp = Integer.compare(a.get(a.position() + i) & 0xFF, b.get(b.position() + i) & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return a.remaining() - b.remaining();
+    }
+
+    //bounds outlive the call so cannot live in the transaction's key buffer, which the next operation reuses
+    static ByteBuffer copyOf(ByteBuffer serialized) {
+        ByteBuffer bound = ByteBuffer.allocateDirect(serialized.remaining());
+        bound.put(serialized.duplicate()).flip();
+        return bound;
+    }
+
+    //smallest key greater than every key starting with prefix in byte order, null when there is none
+    static ByteBuffer prefixEnd(ByteBuffer prefix) {
+        byte[] bytes = new byte[prefix.remaining()];
+        prefix.duplicate().get(bytes);
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            if (bytes[i] != (byte) 0xFF) {
+                bytes[i]++;
+                ByteBuffer end = ByteBuffer.allocateDirect(i + 1);
+                end.put(bytes, 0, i + 1).flip();
+                return end;
+            }
+        }
+        return null;
+    }
+}
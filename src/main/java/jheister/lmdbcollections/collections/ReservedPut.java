@@ -0,0 +1,32 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.codec.Codec;
+import org.lmdbjava.Dbi;
+
+import java.nio.ByteBuffer;
+
+class ReservedPut {
+    private ReservedPut() {
+    }
+
+    //puts the value under the key already in txn.keyBuffer and returns its encoded size. when the codec knows the
+    //size up front the value is serialized straight into the page lmdb reserves for it (MDB_RESERVE), otherwise
+    //through the txn's value buffer. not for MDB_DUPSORT dbis, which lmdb does not reserve space in
+    static <V> int put(Dbi<ByteBuffer> db, Transaction txn, Codec<V> codec, V value) {
+        int size = codec.encodedSize(value);
+        if (size < 0) {
+            txn.serializeValue(codec, value);
+            size = txn.valueBuffer.remaining();
+            db.put(txn.lmdbTxn(), txn.keyBuffer, txn.valueBuffer);
+            return size;
+        }
+        ByteBuffer target = db.reserve(txn.lmdbTxn(), txn.keyBuffer, size);
+        codec.serialize(value, target);
+        if (target.position() != size) {
+            //the reserved space is already in the page, so the txn has to be aborted
+            throw new IllegalStateException("Codec wrote " + target.position() + " bytes but reported an encoded size of " + size);
+        }
+        return size;
+    }
+}
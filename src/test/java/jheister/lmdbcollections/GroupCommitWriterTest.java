@@ -0,0 +1,195 @@
+package jheister.lmdbcollections;
+
+import jheister.lmdbcollections.collections.LmdbMap;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static jheister.lmdbcollections.codec.Codec.INTEGER_CODEC;
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class GroupCommitWriterTest extends TestBase {
+    @Test public void
+    mutations_from_many_threads_are_committed_in_batches() throws Exception {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<Integer, Integer> map = env.map("test", INTEGER_CODEC, INTEGER_CODEC);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+
+            try (GroupCommitWriter writer = GroupCommitWriter.builder().setFlushWindow(1, TimeUnit.MILLISECONDS).start(env)) {
+                List<CompletableFuture<Void>> futures = new ArrayList<>();
+                for (int i = 0; i < 1000; i++) {
+                    int key = i;
+                    futures.add(CompletableFuture.supplyAsync(() -> writer.submit(() -> map.put(key, key * 2)), executor)
+                            .thenCompose(f -> f));
+                }
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+                assertThat(writer.stats().mutations.sum(), is(1000L));
+                assertThat(writer.stats().latency.count(), is(1000L));
+                assertThat(writer.stats().meanBatchSize(), greaterThanOrEqualTo(1.0));
+            } finally {
+                executor.shutdown();
+            }
+
+            try (Transaction txn = env.txnRead()) {
+                assertThat(map.entries().count(), is(1000L));
+                assertThat(map.get(321), is(642));
+            }
+        }
+    }
+
+    @Test public void
+    a_batch_that_fills_the_map_is_replayed_after_growing_it() throws Exception {
+        try (LmdbStorageEnvironment env = LmdbStorageEnvironment.builder()
+                .setMaxTotalSize(1024 * 1024)
+                .autoGrow(2, 64 * 1024 * 1024)
+                .open(tmp.newFolder())) {
+            LmdbMap<Integer, String> map = env.map("test", INTEGER_CODEC, STRING_CODEC);
+            String value = String.join("", Collections.nCopies(1000, "x"));
+
+            try (GroupCommitWriter writer = GroupCommitWriter.builder().start(env)) {
+                List<CompletableFuture<Void>> futures = new ArrayList<>();
+                for (int i = 0; i < 2000; i++) {
+                    int key = i;
+                    futures.add(writer.submit(() -> map.put(key, value)));
+                }
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+            }
+
+            try (Transaction txn = env.txnRead()) {
+                assertThat(map.entries().count(), is(2000L));
+            }
+        }
+    }
+
+    @Test public void
+    a_mutation_throwing_an_error_only_fails_its_own_future() throws Exception {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<Integer, Integer> map = env.map("test", INTEGER_CODEC, INTEGER_CODEC);
+
+            try (GroupCommitWriter writer = GroupCommitWriter.builder().setFlushWindow(100, TimeUnit.MILLISECONDS).start(env)) {
+                CompletableFuture<Void> failing = writer.submit(() -> {
+                    throw new AssertionError("bad mutation");
+                });
+                CompletableFuture<Void> next = writer.submit(() -> map.put(1, 1));
+
+                next.get(30, TimeUnit.SECONDS);
+                assertThat(failing.isCompletedExceptionally(), is(true));
+                assertThat(writer.submit(() -> map.put(2, 2)).get(30, TimeUnit.SECONDS), nullValue());
+            }
+        }
+    }
+
+    @Test public void
+    submits_racing_close_are_either_refused_or_completed() throws Exception {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<Integer, Integer> map = env.map("test", INTEGER_CODEC, INTEGER_CODEC);
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+
+            try {
+                for (int round = 0; round < 20; round++) {
+                    GroupCommitWriter writer = GroupCommitWriter.builder().start(env);
+                    List<Future<List<CompletableFuture<Void>>>> submitters = new ArrayList<>();
+                    for (int t = 0; t < 4; t++) {
+                        submitters.add(executor.submit(() -> {
+                            List<CompletableFuture<Void>> futures = new ArrayList<>();
+                            try {
+                                for (int i = 0; i < 200; i++) {
+                                    int key = i;
+                                    futures.add(writer.submit(() -> map.put(key, key)));
+                                }
+                            } catch (IllegalStateException e) {
+                                //closed
+                            }
+                            return futures;
+                        }));
+                    }
+                    writer.close();
+
+                    for (Future<List<CompletableFuture<Void>>> submitter : submitters) {
+                        for (CompletableFuture<Void> future : submitter.get(30, TimeUnit.SECONDS)) {
+                            assertThat(future.isDone(), is(true));
+                        }
+                    }
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Test public void
+    a_failing_mutation_does_not_fail_the_rest_of_its_batch() throws Exception {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<Integer, Integer> map = env.map("test", INTEGER_CODEC, INTEGER_CODEC);
+
+            CompletableFuture<Void> first;
+            CompletableFuture<Void> failing;
+            CompletableFuture<Void> last;
+            try (GroupCommitWriter writer = GroupCommitWriter.builder().setFlushWindow(100, TimeUnit.MILLISECONDS).start(env)) {
+                first = writer.submit(() -> map.put(1, 1));
+                failing = writer.submit(() -> {
+                    map.put(2, 2);
+                    throw new IllegalArgumentException("bad mutation");
+                });
+                last = writer.submit(() -> map.put(3, 3));
+            }
+
+            assertThat(first.isDone() && last.isDone(), is(true));
+            assertThat(first.get(), nullValue());
+            assertThat(last.get(), nullValue());
+            try {
+                failing.get();
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(IllegalArgumentException.class));
+            }
+            assertThat(failing.isCompletedExceptionally(), is(true));
+
+            try (Transaction txn = env.txnRead()) {
+                assertThat(map.get(1), is(1));
+                assertThat(map.get(2), nullValue());
+                assertThat(map.get(3), is(3));
+            }
+        }
+    }
+
+    @Test public void
+    histogram_reports_percentiles_within_a_few_percent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000);
+        }
+
+        assertThat(histogram.percentileNanos(50), is(50175L));
+        assertThat(histogram.percentileNanos(99), is(100351L));
+        assertThat(new LatencyHistogram().percentileNanos(99), is(0L));
+
+        LatencyHistogram small = new LatencyHistogram();
+        small.record(7);
+        small.record(31);
+        assertThat(small.percentileNanos(50), is(7L));
+        assertThat(small.percentileNanos(100), is(31L));
+    }
+
+    @Test public void
+    histogram_buckets_bound_every_value_tightly() {
+        for (long value : new long[]{0, 1, 31, 32, 33, 63, 64, 1000, 123456789, 1L << 40, Long.MAX_VALUE}) {
+            long upper = LatencyHistogram.upperBound(LatencyHistogram.bucket(value));
+            assertThat(upper >= value, is(true));
+            assertThat(upper - value <= value / 32, is(true));
+        }
+    }
+}
@@ -5,12 +5,17 @@ import jheister.lmdbcollections.collections.LmdbSet;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.lmdbjava.Env;
+import org.lmdbjava.Txn;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.IntStream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -20,6 +25,8 @@ import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class LmdbStorageEnvironmentTest extends TestBase {
     @Test
@@ -84,6 +91,72 @@ public class LmdbStorageEnvironmentTest extends TestBase {
         }
     }
 
+    @Test public void
+    auto_grow_resizes_the_map_and_retries_the_batch() throws IOException {
+        try (LmdbStorageEnvironment env = LmdbStorageEnvironment.builder()
+                .setMaxTotalSize(1024 * 1024)
+                .autoGrow(2, 64 * 1024 * 1024)
+                .enableMetrics("auto-grow-test")
+                .open(tmp.newFolder())) {
+            LmdbSet<String> set = env.set("test", STRING_CODEC);
+
+            env.writeAndCommit(txn -> IntStream.range(0, 100_000).forEach(i -> set.add(txn, UUID.randomUUID().toString())));
+
+            assertThat(env.environmentStats().mapSize > 1024 * 1024, is(true));
+            assertThat(env.metrics().getMapGrowthCount() > 0, is(true));
+            assertThat(env.stats().get(1).entries, is(100_000L));
+        }
+    }
+
+    @Test public void
+    auto_grow_stops_at_the_limit() throws IOException {
+        thrown.expect(Env.MapFullException.class);
+
+        try (LmdbStorageEnvironment env = LmdbStorageEnvironment.builder()
+                .setMaxTotalSize(1024 * 1024)
+                .autoGrow(2, 2 * 1024 * 1024)
+                .open(tmp.newFolder())) {
+            LmdbSet<String> set = env.set("test", STRING_CODEC);
+
+            env.writeAndCommit(txn -> IntStream.range(0, 100_000).forEach(i -> set.add(txn, UUID.randomUUID().toString())));
+        }
+    }
+
+    @Test public void
+    growing_the_map_waits_for_open_transactions() throws Exception {
+        try (LmdbStorageEnvironment env = LmdbStorageEnvironment.builder()
+                .setMaxTotalSize(1024 * 1024)
+                .autoGrow(2, 64 * 1024 * 1024)
+                .open(tmp.newFolder())) {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                CountDownLatch opened = new CountDownLatch(1);
+                CountDownLatch release = new CountDownLatch(1);
+                Future<?> reader = executor.submit(() -> {
+                    try (Transaction txn = env.txnRead()) {
+                        opened.countDown();
+                        release.await();
+                    }
+                    return null;
+                });
+                opened.await();
+
+                Thread grower = new Thread(env::growMap);
+                grower.start();
+                grower.join(200);
+                assertThat(grower.isAlive(), is(true));
+
+                release.countDown();
+                grower.join(10_000);
+                reader.get();
+                assertThat(grower.isAlive(), is(false));
+                assertThat(env.environmentStats().mapSize, is(2L * 1024 * 1024));
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
     @Test public void
     can_get_stats_for_the_entire_env() {
         try (LmdbStorageEnvironment env = createEnv(1024 * 1024)) {
@@ -104,6 +177,165 @@ public class LmdbStorageEnvironmentTest extends TestBase {
         }
     }
 
+    @Test public void
+    environment_stats_report_map_usage_readers_and_free_pages() {
+        try (LmdbStorageEnvironment env = createEnv(1024 * 1024)) {
+            LmdbMap<String, String> map = env.map("test", STRING_CODEC, STRING_CODEC);
+            try (Transaction txn = env.txnWrite()) {
+                IntStream.range(0, 1000).forEach(i -> map.put("key" + i, UUID.randomUUID().toString()));
+                txn.commit();
+            }
+            try (Transaction txn = env.txnWrite()) {
+                map.clear();
+                txn.commit();
+            }
+
+            EnvironmentStats stats = env.environmentStats();
+            assertThat(stats.mapSize, is(1024L * 1024));
+            assertThat(stats.pageSize, is(4096));
+            assertThat(stats.collections.get(1).name, is("test"));
+            assertThat(stats.collections.get(1).entries, is(0L));
+            assertThat(stats.usedSize(), is((stats.lastPageNumber + 1) * 4096));
+            assertThat(stats.freePages() > 10, is(true));
+            assertThat(stats.numReaders >= 1, is(true));
+
+            try (Transaction txn = env.txnWrite()) {
+                map.put("a", "b");
+                txn.commit();
+            }
+            assertThat(env.environmentStats().lastTransactionId, is(stats.lastTransactionId + 1));
+        }
+    }
+
+    @Test public void
+    closed_transactions_are_reused() {
+        try (LmdbStorageEnvironment env = createEnv(1024 * 1024)) {
+            Transaction first = env.txnRead();
+            ByteBuffer keyBuffer = first.keyBuffer;
+            first.close();
+            first.close();
+
+            try (Transaction second = env.txnWrite()) {
+                assertThat(second.keyBuffer, sameInstance(keyBuffer));
+
+                try (Transaction third = env.txnRead()) {
+                    assertThat(third.keyBuffer, not(sameInstance(keyBuffer)));
+                }
+            }
+        }
+    }
+
+    @Test public void
+    closing_a_stale_reference_leaves_the_reusing_transaction_open() {
+        try (LmdbStorageEnvironment env = createEnv(1024 * 1024)) {
+            LmdbMap<String, String> map = env.map("test", STRING_CODEC, STRING_CODEC);
+            Transaction stale = env.txnWrite();
+            stale.close();
+
+            try (Transaction live = env.txnWrite()) {
+                assertThat(live, not(sameInstance(stale)));
+                stale.close();
+                map.put(live, "a", "1");
+                live.commit();
+            }
+
+            try (Transaction txn = env.txnRead()) {
+                assertThat(map.get(txn, "a"), is("1"));
+            }
+        }
+    }
+
+    @Test public void
+    closed_transaction_cannot_reach_lmdb_txn() {
+        try (LmdbStorageEnvironment env = createEnv(1024 * 1024)) {
+            Transaction txn = env.txnRead();
+            txn.close();
+
+            thrown.expect(IllegalStateException.class);
+            txn.lmdbTxn();
+        }
+    }
+
+    @Test public void
+    reused_read_transactions_see_latest_commit() throws IOException {
+        try (LmdbStorageEnvironment env = LmdbStorageEnvironment.builder()
+                .setMaxCollections(3)
+                .setMaxTotalSize(1024 * 1024)
+                .reuseReadTransactions()
+                .open(tmp.newFolder())) {
+            LmdbSet<String> set = env.set("test", STRING_CODEC);
+
+            Txn<ByteBuffer> lmdbTxn;
+            try (Transaction txn = env.txnRead()) {
+                lmdbTxn = txn.lmdbTxn();
+                assertThat(set.contains("A"), is(false));
+            }
+
+            try (Transaction txn = env.txnWrite()) {
+                set.add("A");
+                txn.commit();
+            }
+
+            try (Transaction txn = env.txnRead()) {
+                assertThat(txn.lmdbTxn(), sameInstance(lmdbTxn));
+                assertThat(set.contains("A"), is(true));
+            }
+        }
+    }
+
+    @Test public void
+    explicit_transactions_can_be_handed_between_threads() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (LmdbStorageEnvironment env = LmdbStorageEnvironment.builder()
+                .setMaxCollections(3)
+                .setMaxTotalSize(1024 * 1024)
+                .reuseReadTransactions()
+                .noTls()
+                .open(tmp.newFolder())) {
+            LmdbMap<String, Integer> map = env.map("test", STRING_CODEC, INTEGER_CODEC);
+
+            try (Transaction txn = env.explicitTxnWrite()) {
+                map.put(txn, "A", 1);
+                txn.commit();
+            }
+
+            Transaction read = env.explicitTxnRead();
+            Txn<ByteBuffer> lmdbTxn = read.lmdbTxn();
+            assertThat(executor.submit(() -> map.get(read, "A")).get(), is(1));
+            executor.submit(read::close).get();
+
+            try (Transaction txn = env.explicitTxnRead()) {
+                assertThat(txn.lmdbTxn(), sameInstance(lmdbTxn));
+                assertThat(map.get(txn, "A"), is(1));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test public void
+    closing_an_explicit_transaction_keeps_the_bound_one() throws IOException {
+        try (LmdbStorageEnvironment env = LmdbStorageEnvironment.builder()
+                .setMaxCollections(3)
+                .setMaxTotalSize(1024 * 1024)
+                .noTls()
+                .open(tmp.newFolder())) {
+            LmdbMap<String, Integer> map = env.map("test", STRING_CODEC, INTEGER_CODEC);
+
+            try (Transaction txn = env.txnWrite()) {
+                try (Transaction explicit = env.explicitTxnRead()) {
+                    assertThat(map.containsKey(explicit, "A"), is(false));
+                }
+                map.put("A", 1);
+                txn.commit();
+            }
+
+            try (Transaction txn = env.txnRead()) {
+                assertThat(map.get("A"), is(1));
+            }
+        }
+    }
+
     @Ignore
     @Test public void
     storage_efficiency_experiment() {
@@ -131,4 +363,30 @@ public class LmdbStorageEnvironmentTest extends TestBase {
             System.out.println("Size: " + stats.size() / 1024 / 1024);
         }
     }
-}
\ No newline at end of file
+
+    @Ignore
+    @Test public void
+    transaction_throughput_experiment() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<String, String> map = env.map("test1", STRING_CODEC, STRING_CODEC);
+
+            try (Transaction txn = env.txnWrite()) {
+                map.put("k1", "Hello");
+                txn.commit();
+            }
+
+            for (int run = 0; run < 5; run++) {
+                int txns = 1000000;
+                long start = System.nanoTime();
+                for (int i = 0; i < txns; i++) {
+                    try (Transaction txn = env.txnRead()) {
+                        map.get("k1");
+                    }
+                }
+                long elapsed = System.nanoTime() - start;
+
+                System.out.println("Read txns/sec: " + (long) (txns / (elapsed / 1e9)));
+            }
+        }
+    }
+}
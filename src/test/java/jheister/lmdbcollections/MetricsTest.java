@@ -0,0 +1,90 @@
+package jheister.lmdbcollections;
+
+import jheister.lmdbcollections.collections.LmdbMap;
+import jheister.lmdbcollections.collections.LmdbTable;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class MetricsTest extends TestBase {
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+    @Test public void
+    collection_operations_are_counted_and_published() throws Exception {
+        ObjectName name = new ObjectName("jheister.lmdbcollections:env=\"metrics-test\",type=Collection,collection=\"test\"");
+        try (LmdbStorageEnvironment env = open("metrics-test")) {
+            LmdbMap<String, String> map = env.map("test", STRING_CODEC, STRING_CODEC);
+            try (Transaction txn = env.txnWrite()) {
+                map.put("a", "1");
+                map.put("b", "2");
+                map.remove("b");
+                txn.commit();
+            }
+            try (Transaction txn = env.txnRead()) {
+                map.get("a");
+                map.get("b");
+                collect(map.entries());
+            }
+
+            CollectionMetrics metrics = env.collectionMetrics("test");
+            assertThat(metrics.getPutCount(), is(2L));
+            assertThat(metrics.getRemoveCount(), is(1L));
+            assertThat(metrics.getGetCount(), is(2L));
+            assertThat(metrics.getScanCount(), is(1L));
+            assertThat(metrics.getBytesEncoded(), greaterThan(0L));
+            assertThat(metrics.getBytesDecoded(), greaterThan(0L));
+
+            assertThat(server.getAttribute(name, "GetCount"), is(2L));
+            assertThat(env.metrics().getCommitCount(), is(1L));
+            assertThat(env.metrics().getWriteTxnCount(), is(1L));
+            assertThat(env.metrics().getReadTxnCount(), is(1L));
+        }
+        assertThat(server.isRegistered(name), is(false));
+    }
+
+    @Test public void
+    collections_opened_under_the_same_name_share_metrics() throws Exception {
+        try (LmdbStorageEnvironment env = open("metrics-shared")) {
+            LmdbTable<String, String, String> table = env.table("test", STRING_CODEC, STRING_CODEC, STRING_CODEC);
+            env.table("test", STRING_CODEC, STRING_CODEC, STRING_CODEC);
+            try (Transaction txn = env.txnWrite()) {
+                table.put("r", "c", "v");
+                collect(table.rowEntries("r"));
+            }
+
+            assertThat(env.collectionMetrics("test").getPutCount(), is(1L));
+            assertThat(env.collectionMetrics("test").getScanCount(), is(1L));
+        }
+    }
+
+    @Test public void
+    metrics_are_disabled_by_default() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<String, String> map = env.map("test", STRING_CODEC, STRING_CODEC);
+            try (Transaction txn = env.txnWrite()) {
+                map.put("a", "1");
+                txn.commit();
+            }
+
+            assertThat(env.collectionMetrics("test"), is(sameInstance(CollectionMetrics.DISABLED)));
+            assertThat(CollectionMetrics.DISABLED.getPutCount(), is(0L));
+            assertThat(env.metrics().getCommitCount(), is(0L));
+        }
+    }
+
+    private LmdbStorageEnvironment open(String name) throws IOException {
+        return LmdbStorageEnvironment.builder()
+                .setMaxCollections(3)
+                .enableMetrics(name)
+                .open(tmp.newFolder());
+    }
+}
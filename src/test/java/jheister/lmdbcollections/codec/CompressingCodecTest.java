@@ -0,0 +1,119 @@
+package jheister.lmdbcollections.codec;
+
+import jheister.lmdbcollections.LmdbStorageEnvironment;
+import jheister.lmdbcollections.TestBase;
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.collections.LmdbTable;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static jheister.lmdbcollections.codec.Codec.INTEGER_CODEC;
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class CompressingCodecTest extends TestBase {
+    @Test public void
+    values_round_trip_with_and_without_a_dictionary() {
+        CompressingCodec<String> codec = new CompressingCodec<>("test", STRING_CODEC);
+        String redundant = record(1);
+        byte[] random = new byte[40];
+        new Random(1).nextBytes(random);
+        String incompressible = new String(random, ISO_8859_1);
+
+        assertThat(roundTrip(codec, redundant), is(redundant));
+        assertThat(roundTrip(codec, incompressible), is(incompressible));
+        assertThat(roundTrip(codec, ""), is(""));
+
+        codec.addDictionary(1, record(2).getBytes(UTF_8));
+        assertThat(roundTrip(codec, redundant), is(redundant));
+    }
+
+    @Test public void
+    a_trained_dictionary_shrinks_small_similar_values() throws IOException {
+        try (LmdbStorageEnvironment env = LmdbStorageEnvironment.create(tmp.newFolder(), 3, 1024 * 1024 * 20)) {
+            CompressingCodec<String> codec = env.compressingCodec("records", STRING_CODEC);
+            int withoutDictionary = encodedSize(codec, record(5000));
+
+            env.trainDictionary(codec, IntStream.range(0, 500).mapToObj(CompressingCodecTest::record).collect(toList()), 4096);
+
+            assertThat(codec.currentVersion(), is(1));
+            assertThat(encodedSize(codec, record(5000)), lessThan(withoutDictionary / 2));
+        }
+    }
+
+    @Test public void
+    dictionaries_do_not_take_a_collection_slot() throws IOException {
+        try (LmdbStorageEnvironment env = LmdbStorageEnvironment.create(tmp.newFolder(), 1, 1024 * 1024 * 20)) {
+            CompressingCodec<String> codec = env.compressingCodec("records", STRING_CODEC);
+            LmdbTable<Integer, Integer, String> table = env.table("records", INTEGER_CODEC, INTEGER_CODEC, codec);
+
+            try (Transaction txn = env.txnWrite()) {
+                table.put(1, 1, record(1));
+                txn.commit();
+            }
+            try (Transaction txn = env.txnRead()) {
+                assertThat(table.get(1, 1), is(record(1)));
+            }
+        }
+    }
+
+    @Test public void
+    values_written_with_older_dictionaries_decode_after_reopening() throws IOException {
+        File path = tmp.newFolder();
+        List<String> samples = IntStream.range(0, 200).mapToObj(CompressingCodecTest::record).collect(toList());
+        try (LmdbStorageEnvironment env = LmdbStorageEnvironment.create(path, 3, 1024 * 1024 * 20)) {
+            CompressingCodec<String> codec = env.compressingCodec("records", STRING_CODEC);
+            LmdbTable<Integer, Integer, String> table = env.table("table", INTEGER_CODEC, INTEGER_CODEC, codec);
+            write(env, table, 0);
+            env.trainDictionary(codec, samples, 2048);
+            write(env, table, 1);
+            env.trainDictionary(codec, samples, 1024);
+            write(env, table, 2);
+        }
+
+        try (LmdbStorageEnvironment env = LmdbStorageEnvironment.create(path, 3, 1024 * 1024 * 20)) {
+            CompressingCodec<String> codec = env.compressingCodec("records", STRING_CODEC);
+            LmdbTable<Integer, Integer, String> table = env.table("table", INTEGER_CODEC, INTEGER_CODEC, codec);
+
+            assertThat(codec.currentVersion(), is(2));
+            try (Transaction txn = env.txnRead()) {
+                for (int row = 0; row < 3; row++) {
+                    assertThat(table.get(row, 7), is(record(row * 100 + 7)));
+                }
+            }
+        }
+    }
+
+    private static void write(LmdbStorageEnvironment env, LmdbTable<Integer, Integer, String> table, int row) {
+        env.writeAndCommit(txn -> IntStream.range(0, 100).forEach(col -> table.put(txn, row, col, record(row * 100 + col))));
+    }
+
+    private static String record(int i) {
+        return "{\"id\":" + i + ",\"name\":\"customer-" + (i * 7919 % 1000) + "\",\"status\":\"" + (i % 3 == 0 ? "active" : "suspended")
+                + "\",\"country\":\"GB\",\"tags\":[\"retail\",\"priority\"],\"balance\":" + (i * 31 % 977) + "}";
+    }
+
+    private static String roundTrip(CompressingCodec<String> codec, String value) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        codec.serialize(value, buffer);
+        buffer.flip();
+        return codec.deserialize(buffer);
+    }
+
+    private static int encodedSize(CompressingCodec<String> codec, String value) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        codec.serialize(value, buffer);
+        return buffer.position();
+    }
+}
@@ -0,0 +1,211 @@
+package jheister.lmdbcollections.codec;
+
+import jheister.lmdbcollections.LmdbStorageEnvironment;
+import jheister.lmdbcollections.TestBase;
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.collections.LmdbMap;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ObjectCodecTest extends TestBase {
+    @Test public void
+    all_supported_field_types_round_trip_through_a_map() {
+        ObjectCodec<Order> codec = ObjectCodec.of(Order.class);
+        Order order = new Order();
+        order.id = 42L;
+        order.quantity = -3;
+        order.price = 9.75;
+        order.flag = true;
+        order.grade = 'B';
+        order.code = 7;
+        order.small = -2;
+        order.ratio = 0.5f;
+        order.customer = "café 😀";
+        order.discount = 12;
+        order.unit = TimeUnit.SECONDS;
+        order.payload = new byte[]{0, 1, 2};
+        order.region = "eu";
+
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<String, Order> map = env.map("orders", STRING_CODEC, codec);
+            try (Transaction txn = env.txnWrite()) {
+                map.put("a", order);
+                map.put("empty", new Order());
+
+                assertThat(map.get("a"), is(order));
+                assertThat(map.get("empty"), is(new Order()));
+                assertThat(map.get("empty").customer, nullValue());
+            }
+        }
+    }
+
+    @Test public void
+    encoded_size_is_exact() {
+        ObjectCodec<Order> codec = ObjectCodec.of(Order.class);
+        Order order = new Order();
+        order.customer = "é\ud800x";
+        order.unit = TimeUnit.DAYS;
+        order.discount = 1;
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        codec.serialize(order, buffer);
+
+        assertThat(codec.encodedSize(order), is(buffer.position()));
+        buffer.flip();
+        assertThat(codec.deserialize(buffer).customer, is("é?x"));
+    }
+
+    @Test public void
+    fields_added_later_decode_with_their_defaults_and_unknown_fields_are_skipped() {
+        Version1 v1 = new Version1();
+        v1.id = 5;
+        v1.name = "old";
+
+        Version2 upgraded = roundTrip(ObjectCodec.of(Version1.class), v1, ObjectCodec.of(Version2.class));
+        assertThat(upgraded.id, is(5));
+        assertThat(upgraded.name, is("old"));
+        assertThat(upgraded.score, is(100L));
+
+        Version2 v2 = new Version2();
+        v2.id = 6;
+        v2.name = "new";
+        v2.score = 1;
+        Version1 downgraded = roundTrip(ObjectCodec.of(Version2.class), v2, ObjectCodec.of(Version1.class));
+        assertThat(downgraded.id, is(6));
+        assertThat(downgraded.name, is("new"));
+    }
+
+    @Test public void
+    package_private_fields_are_read_and_written_by_generated_code() {
+        assertThat(ObjectCodec.of(Order.class).isGenerated(), is(true));
+    }
+
+    @Test public void
+    private_fields_are_read_and_written_without_generated_code() {
+        Secret secret = new Secret();
+        secret.pin = 1234;
+        secret.owner = "me";
+
+        ObjectCodec<Secret> codec = ObjectCodec.of(Secret.class);
+        assertThat(codec.isGenerated(), is(false));
+
+        Secret result = roundTrip(codec, secret, ObjectCodec.of(Secret.class));
+        assertThat(result.pin, is(1234));
+        assertThat(result.owner, is("me"));
+    }
+
+    @Test public void
+    final_fields_are_written_without_generated_code() {
+        ObjectCodec<Labelled> codec = ObjectCodec.of(Labelled.class);
+        assertThat(codec.isGenerated(), is(false));
+
+        Labelled labelled = new Labelled("first");
+        labelled.count = 3;
+        Labelled result = roundTrip(codec, labelled, codec);
+        assertThat(result.label, is("first"));
+        assertThat(result.count, is(3));
+    }
+
+    @Test public void
+    generated_only_codecs_refuse_the_method_handle_fallback() {
+        assertThat(ObjectCodec.generated(Order.class).isGenerated(), is(true));
+
+        thrown.expect(IllegalArgumentException.class);
+        ObjectCodec.generated(Secret.class);
+    }
+
+    @Test public void
+    unsupported_field_types_are_rejected() {
+        thrown.expect(IllegalArgumentException.class);
+        ObjectCodec.of(Unsupported.class);
+    }
+
+    private static <A, B> B roundTrip(ObjectCodec<A> writer, A value, ObjectCodec<B> reader) {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        writer.serialize(value, buffer);
+        buffer.flip();
+        B result = reader.deserialize(buffer);
+        assertThat(buffer.remaining(), is(0));
+        return result;
+    }
+
+    static class Base {
+        long id;
+    }
+
+    static class Order extends Base {
+        static int ignored = 1;
+        transient int cached = 1;
+        int quantity;
+        double price;
+        boolean flag;
+        char grade;
+        byte code;
+        short small;
+        float ratio;
+        String customer;
+        Integer discount;
+        TimeUnit unit;
+        byte[] payload;
+        String region = "us";
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Order)) {
+                return false;
+            }
+            Order other = (Order) o;
+            return id == other.id && quantity == other.quantity && price == other.price && flag == other.flag
+                    && grade == other.grade && code == other.code && small == other.small && ratio == other.ratio
+                    && Objects.equals(customer, other.customer) && Objects.equals(discount, other.discount)
+                    && unit == other.unit && Arrays.equals(payload, other.payload) && region.equals(other.region);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(id);
+        }
+    }
+
+    private static class Version1 {
+        int id;
+        String name;
+    }
+
+    private static class Version2 {
+        int id;
+        String name;
+        long score = 100;
+    }
+
+    private static class Secret {
+        private int pin;
+        private String owner;
+    }
+
+    static class Labelled {
+        final String label;
+        int count;
+
+        Labelled() {
+            this(null);
+        }
+
+        Labelled(String label) {
+            this.label = label;
+        }
+    }
+
+    private static class Unsupported {
+        Object value;
+    }
+}
@@ -0,0 +1,84 @@
+package jheister.lmdbcollections.codec;
+
+import jheister.lmdbcollections.LmdbStorageEnvironment;
+import jheister.lmdbcollections.TestBase;
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.collections.LmdbSet;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static jheister.lmdbcollections.codec.Codec.ORDERED_DOUBLE_CODEC;
+import static jheister.lmdbcollections.codec.Codec.ORDERED_INTEGER_CODEC;
+import static jheister.lmdbcollections.codec.Codec.ORDERED_LONG_CODEC;
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+import static jheister.lmdbcollections.codec.Codec.UNSIGNED_INTEGER_CODEC;
+import static jheister.lmdbcollections.codec.Codec.UNSIGNED_LONG_CODEC;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class OrderedCodecTest extends TestBase {
+    @Test public void
+    signed_integers_sort_numerically_without_a_comparator() {
+        assertThat(ORDERED_INTEGER_CODEC.comparator(), nullValue());
+        assertThat(sorted(ORDERED_INTEGER_CODEC, 3, -1, Integer.MAX_VALUE, 0, Integer.MIN_VALUE, -300),
+                contains(Integer.MIN_VALUE, -300, -1, 0, 3, Integer.MAX_VALUE));
+        assertThat(sorted(ORDERED_INTEGER_CODEC.reverseOrder(), 3, -1, Integer.MAX_VALUE, 0, Integer.MIN_VALUE, -300),
+                contains(Integer.MAX_VALUE, 3, 0, -1, -300, Integer.MIN_VALUE));
+    }
+
+    @Test public void
+    unsigned_integers_sort_negative_values_last() {
+        assertThat(sorted(UNSIGNED_INTEGER_CODEC, -1, 0, 7, Integer.MIN_VALUE, Integer.MAX_VALUE),
+                contains(0, 7, Integer.MAX_VALUE, Integer.MIN_VALUE, -1));
+    }
+
+    @Test public void
+    longs_sort_numerically() {
+        assertThat(sorted(ORDERED_LONG_CODEC, 5L, Long.MIN_VALUE, -5L, 0L, Long.MAX_VALUE),
+                contains(Long.MIN_VALUE, -5L, 0L, 5L, Long.MAX_VALUE));
+        assertThat(sorted(ORDERED_LONG_CODEC.reverseOrder(), 5L, Long.MIN_VALUE, -5L, 0L, Long.MAX_VALUE),
+                contains(Long.MAX_VALUE, 5L, 0L, -5L, Long.MIN_VALUE));
+        assertThat(sorted(UNSIGNED_LONG_CODEC, -1L, 1L, 0L),
+                contains(0L, 1L, -1L));
+    }
+
+    @Test public void
+    doubles_sort_numerically() {
+        assertThat(sorted(ORDERED_DOUBLE_CODEC, 1.5, -0.25, Double.NEGATIVE_INFINITY, -1e300, 0.0, -0.0, 1e-300, Double.POSITIVE_INFINITY),
+                contains(Double.NEGATIVE_INFINITY, -1e300, -0.25, -0.0, 0.0, 1e-300, 1.5, Double.POSITIVE_INFINITY));
+        assertThat(sorted(ORDERED_DOUBLE_CODEC.reverseOrder(), 1.5, -0.25, 0.0),
+                contains(1.5, 0.0, -0.25));
+    }
+
+    @Test public void
+    strings_can_be_sorted_in_reverse() {
+        assertThat(sorted(STRING_CODEC.reverseOrder(), "a", "ab", "", "b", "a\u0000", "a\u0000b", "\u0000"),
+                contains("b", "ab", "a\u0000b", "a\u0000", "a", "\u0000", ""));
+        assertThat(sorted(STRING_CODEC.reverseOrder().reverseOrder(), "b", "ab", "a"),
+                contains("a", "ab", "b"));
+    }
+
+    @SafeVarargs
+    private final <T> List<T> sorted(Codec<T> codec, T... values) {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbSet<T> set = env.set("test", codec);
+
+            try (Transaction txn = env.txnWrite()) {
+                for (T value : values) {
+                    set.add(value);
+                }
+                for (T value : values) {
+                    assertThat(set.contains(value), is(true));
+                }
+
+                List<T> result = new ArrayList<>();
+                set.forEach(result::add);
+                return result;
+            }
+        }
+    }
+}
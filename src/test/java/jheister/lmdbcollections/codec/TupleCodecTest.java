@@ -0,0 +1,123 @@
+package jheister.lmdbcollections.codec;
+
+import jheister.lmdbcollections.LmdbStorageEnvironment;
+import jheister.lmdbcollections.TestBase;
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.collections.LmdbMap;
+import jheister.lmdbcollections.collections.LmdbSet;
+import jheister.lmdbcollections.collections.LmdbSetMultimap;
+import jheister.lmdbcollections.collections.LmdbTable;
+import jheister.lmdbcollections.collections.LmdbTable.KeyLayout;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static jheister.lmdbcollections.codec.Codec.BYTES_CODEC;
+import static jheister.lmdbcollections.codec.Codec.INTEGER_CODEC;
+import static jheister.lmdbcollections.codec.Codec.ORDERED_INTEGER_CODEC;
+import static jheister.lmdbcollections.codec.Codec.ORDERED_LONG_CODEC;
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class TupleCodecTest extends TestBase {
+    private final TupleCodec codec = TupleCodec.of(STRING_CODEC, ORDERED_LONG_CODEC, BYTES_CODEC);
+
+    @Test public void
+    tuples_round_trip_including_prefixes_and_nested_tuples() {
+        assertThat(roundTrip(codec, Tuple.of("a\u0000b", -7L, new byte[]{0, 1, 0})), is(Tuple.of("a\u0000b", -7L, new byte[]{0, 1, 0})));
+        assertThat(roundTrip(codec, Tuple.of("", 0L)), is(Tuple.of("", 0L)));
+
+        TupleCodec nested = TupleCodec.of(TupleCodec.of(STRING_CODEC, ORDERED_INTEGER_CODEC), STRING_CODEC);
+        assertThat(roundTrip(nested, Tuple.of(Tuple.of("x", 1), "y")), is(Tuple.of(Tuple.of("x", 1), "y")));
+        assertThat(roundTrip(nested, Tuple.of(Tuple.of("x"))), is(Tuple.of(Tuple.of("x"))));
+    }
+
+    @Test public void
+    tuples_sort_component_by_component_without_a_comparator() {
+        assertThat(codec.comparator(), nullValue());
+        assertThat(sorted(TupleCodec.of(STRING_CODEC, ORDERED_INTEGER_CODEC),
+                Tuple.of("b", 1), Tuple.of("a", 2), Tuple.of("ab", -1), Tuple.of("a", -5), Tuple.of("a\u0000", 0), Tuple.of("", 9)),
+                contains(Tuple.of("", 9), Tuple.of("a", -5), Tuple.of("a", 2), Tuple.of("a\u0000", 0), Tuple.of("ab", -1), Tuple.of("b", 1)));
+        assertThat(sorted(TupleCodec.of(ORDERED_INTEGER_CODEC.reverseOrder(), STRING_CODEC.reverseOrder()),
+                Tuple.of(1, "a"), Tuple.of(2, "a"), Tuple.of(1, "b"), Tuple.of(1, "ab")),
+                contains(Tuple.of(2, "a"), Tuple.of(1, "b"), Tuple.of(1, "ab"), Tuple.of(1, "a")));
+    }
+
+    @Test public void
+    prefix_scans_select_by_leading_components() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<Tuple, String> map = env.map("test", codec, STRING_CODEC);
+            try (Transaction txn = env.txnWrite()) {
+                map.put(Tuple.of("a", 1L, new byte[]{1}), "a1");
+                map.put(Tuple.of("a", 2L, new byte[]{1}), "a2-1");
+                map.put(Tuple.of("a", 2L, new byte[]{2}), "a2-2");
+                map.put(Tuple.of("ab", 2L, new byte[]{1}), "ab2");
+
+                assertThat(collect(map.prefixEntries(Tuple.of("a")).map(e -> e.value)), contains("a1", "a2-1", "a2-2"));
+                assertThat(collect(map.prefixEntries(Tuple.of("a", 2L)).map(e -> e.value)), contains("a2-1", "a2-2"));
+                assertThat(collect(map.prefixEntries(Tuple.of("b")).map(e -> e.value)), empty());
+            }
+        }
+    }
+
+    @Test public void
+    tuples_key_tables_and_multimaps() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            TupleCodec rows = TupleCodec.of(STRING_CODEC, ORDERED_INTEGER_CODEC);
+            LmdbTable<Tuple, Tuple, Integer> table = env.table("table", rows, rows, INTEGER_CODEC, KeyLayout.TERMINATED);
+            LmdbSetMultimap<Tuple, String> multimap = env.sortedSetMultimap("multimap", rows, STRING_CODEC);
+            try (Transaction txn = env.txnWrite()) {
+                table.put(Tuple.of("r", 1), Tuple.of("c", 2), 12);
+                table.put(Tuple.of("r", 1), Tuple.of("c", 1), 11);
+                table.put(Tuple.of("r", 2), Tuple.of("c", 1), 21);
+                multimap.put(Tuple.of("k", 1), "x");
+                multimap.put(Tuple.of("k", 1), "y");
+                multimap.put(Tuple.of("k", 2), "z");
+
+                assertThat(collect(table.rowEntries(Tuple.of("r", 1)).map(e -> e.value)), contains(11, 12));
+                assertThat(collect(multimap.get(Tuple.of("k", 1))), contains("x", "y"));
+            }
+        }
+    }
+
+    @Test public void
+    components_with_a_comparator_are_rejected() {
+        thrown.expect(IllegalArgumentException.class);
+        TupleCodec.of(STRING_CODEC, INTEGER_CODEC);
+    }
+
+    @Test public void
+    a_nested_tuple_before_further_components_must_be_complete() {
+        TupleCodec nested = TupleCodec.of(TupleCodec.of(STRING_CODEC, ORDERED_INTEGER_CODEC), STRING_CODEC);
+
+        thrown.expect(IllegalArgumentException.class);
+        nested.serialize(Tuple.of(Tuple.of("x"), "y"), ByteBuffer.allocate(64));
+    }
+
+    private static Tuple roundTrip(TupleCodec codec, Tuple tuple) {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        codec.serialize(tuple, buffer);
+        buffer.flip();
+        return codec.deserialize(buffer);
+    }
+
+    private List<Tuple> sorted(TupleCodec codec, Tuple... tuples) {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbSet<Tuple> set = env.set("test", codec);
+            try (Transaction txn = env.txnWrite()) {
+                for (Tuple tuple : tuples) {
+                    set.add(tuple);
+                }
+                List<Tuple> result = new ArrayList<>();
+                set.forEach(result::add);
+                return result;
+            }
+        }
+    }
+}
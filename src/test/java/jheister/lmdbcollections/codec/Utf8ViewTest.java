@@ -0,0 +1,44 @@
+package jheister.lmdbcollections.codec;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class Utf8ViewTest {
+    @Test public void
+    compares_against_strings_without_decoding() {
+        Utf8View view = viewOf("café 😀");
+
+        assertThat(view.contentEquals("café 😀"), is(true));
+        assertThat(view.contentEquals("café"), is(false));
+        assertThat(view.startsWith("café"), is(true));
+        assertThat(view.startsWith("cafe"), is(false));
+        assertThat(view.compareTo("café"), greaterThan(0));
+        assertThat(view.compareTo("café ￿"), greaterThan(0));
+        assertThat(view.compareTo("d"), lessThan(0));
+        assertThat(view.toString(), is("café 😀"));
+    }
+
+    @Test public void
+    only_sees_the_remaining_bytes_of_the_wrapped_buffer() {
+        ByteBuffer buffer = ByteBuffer.wrap("xxhello".getBytes(UTF_8));
+        buffer.position(2);
+        Utf8View view = new Utf8View();
+        view.wrap(buffer);
+
+        assertThat(view.length(), is(5));
+        assertThat(view.contentEquals("hello"), is(true));
+    }
+
+    private static Utf8View viewOf(String value) {
+        Utf8View view = new Utf8View();
+        view.wrap(ByteBuffer.wrap(value.getBytes(UTF_8)));
+        return view;
+    }
+}
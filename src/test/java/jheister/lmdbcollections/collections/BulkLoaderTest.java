@@ -0,0 +1,165 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.LmdbStorageEnvironment;
+import jheister.lmdbcollections.TestBase;
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.collections.BulkLoader.LoadStats;
+import jheister.lmdbcollections.collections.LmdbTable.TableEntry;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static jheister.lmdbcollections.codec.Codec.INTEGER_CODEC;
+import static jheister.lmdbcollections.codec.Codec.ORDERED_INTEGER_CODEC;
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class BulkLoaderTest extends TestBase {
+    @Test public void
+    loads_sorted_entries_in_chunks() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<Integer, String> map = env.map("test", ORDERED_INTEGER_CODEC, STRING_CODEC);
+
+            LoadStats stats = BulkLoader.forMap(env, map)
+                    .setCommitEvery(100)
+                    .loadSorted(IntStream.range(-500, 500).mapToObj(i -> new Entry<>(i, "v" + i)));
+
+            assertThat(stats.entries, is(1000L));
+            assertThat(stats.commits, is(10L));
+
+            try (Transaction txn = env.txnRead()) {
+                assertThat(map.get(-500), is("v-500"));
+                assertThat(map.get(499), is("v499"));
+                assertThat(map.entries().count(), is(1000L));
+            }
+        }
+    }
+
+    @Test public void
+    leaves_the_callers_bound_transaction_in_place() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<Integer, String> map = env.map("test", ORDERED_INTEGER_CODEC, STRING_CODEC);
+
+            try (Transaction txn = env.txnRead()) {
+                BulkLoader.forMap(env, map)
+                        .setCommitEvery(10)
+                        .loadSorted(IntStream.range(0, 25).mapToObj(i -> new Entry<>(i, "v" + i)));
+
+                assertThat(map.get(0), is(nullValue()));
+            }
+
+            try (Transaction txn = env.txnRead()) {
+                assertThat(map.get(0), is("v0"));
+            }
+        }
+    }
+
+    @Test public void
+    loads_values_larger_than_the_value_buffer() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<Integer, String> sorted = env.map("sorted", ORDERED_INTEGER_CODEC, STRING_CODEC);
+            LmdbMap<Integer, String> spilled = env.map("spilled", ORDERED_INTEGER_CODEC, STRING_CODEC);
+            String large = String.join("", Collections.nCopies(100_000, "x"));
+
+            BulkLoader.forMap(env, sorted).loadSorted(IntStream.range(0, 5).mapToObj(i -> new Entry<>(i, i + large)));
+            LoadStats stats = BulkLoader.forMap(env, spilled)
+                    .setSortBufferBytes(150_000)
+                    .setTempDirectory(tmp.getRoot().toPath())
+                    .load(IntStream.of(3, 0, 4, 1, 2).mapToObj(i -> new Entry<>(i, i + large)));
+
+            assertThat(stats.sortRuns > 1, is(true));
+            try (Transaction txn = env.txnRead()) {
+                for (LmdbMap<Integer, String> map : Arrays.asList(sorted, spilled)) {
+                    assertThat(collect(map.entries().map(e -> e.value.length())), contains(100_001, 100_001, 100_001, 100_001, 100_001));
+                    assertThat(map.get(4), is(4 + large));
+                }
+            }
+        }
+    }
+
+    @Test public void
+    sorts_unsorted_input_spilling_to_disk() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<Integer, String> map = env.map("test", INTEGER_CODEC, STRING_CODEC);
+
+            List<Integer> keys = IntStream.range(-1000, 1000).boxed().collect(Collectors.toList());
+            Collections.shuffle(keys, new Random(1));
+
+            LoadStats stats = BulkLoader.forMap(env, map)
+                    .setSortBufferBytes(4096)
+                    .setTempDirectory(tmp.getRoot().toPath())
+                    .load(keys.stream().map(i -> new Entry<>(i, "v" + i)));
+
+            assertThat(stats.entries, is(2000L));
+            assertThat(stats.sortRuns > 1, is(true));
+            assertThat(tmp.getRoot().listFiles().length, is(1));
+
+            try (Transaction txn = env.txnRead()) {
+                assertThat(collect(map.entries().map(e -> e.key)),
+                        is(IntStream.range(-1000, 1000).boxed().collect(Collectors.toList())));
+            }
+        }
+    }
+
+    @Test public void
+    loads_multimap_values_and_drops_duplicates() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbSetMultimap<String, String> multimap = env.sortedSetMultimap("test", STRING_CODEC, STRING_CODEC);
+
+            BulkLoader.forSetMultimap(env, multimap).load(Stream.of(
+                    new Entry<>("k2", "b"),
+                    new Entry<>("k1", "z"),
+                    new Entry<>("k1", "a"),
+                    new Entry<>("k2", "b"),
+                    new Entry<>("k2", "a")
+            ));
+
+            try (Transaction txn = env.txnRead()) {
+                assertThat(collect(multimap.get("k1")), contains("a", "z"));
+                assertThat(collect(multimap.get("k2")), contains("a", "b"));
+            }
+        }
+    }
+
+    @Test public void
+    loads_table_entries() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbTable<String, String, String> table = env.table("test", STRING_CODEC, STRING_CODEC, STRING_CODEC);
+
+            List<TableEntry<String, String, String>> entries = new ArrayList<>();
+            entries.add(new TableEntry<>("AA", "a", "4"));
+            entries.add(new TableEntry<>("A", "Ab", "2"));
+            entries.add(new TableEntry<>("A", "Aa", "1"));
+
+            BulkLoader.forTable(env, table).load(entries.iterator());
+
+            try (Transaction txn = env.txnRead()) {
+                assertThat(collect(table.rowEntries("A")), contains(
+                        new TableEntry<>("A", "Aa", "1"),
+                        new TableEntry<>("A", "Ab", "2")
+                ));
+                assertThat(table.get("AA", "a"), is("4"));
+            }
+        }
+    }
+
+    @Test public void
+    rejects_unsorted_input_when_told_it_is_sorted() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<String, String> map = env.map("test", STRING_CODEC, STRING_CODEC);
+
+            thrown.expect(IllegalArgumentException.class);
+            BulkLoader.forMap(env, map).loadSorted(Stream.of(new Entry<>("b", ""), new Entry<>("a", "")));
+        }
+    }
+}
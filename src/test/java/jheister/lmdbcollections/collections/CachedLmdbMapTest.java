@@ -0,0 +1,129 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.LmdbStorageEnvironment;
+import jheister.lmdbcollections.TestBase;
+import jheister.lmdbcollections.Transaction;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class CachedLmdbMapTest extends TestBase {
+    @Test public void
+    repeated_reads_are_served_from_the_cache() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            CachedLmdbMap<String, String> map = env.cachedMap("test", STRING_CODEC, STRING_CODEC, 10);
+            try (Transaction txn = env.txnWrite()) {
+                map.put("a", "1");
+                txn.commit();
+            }
+
+            try (Transaction txn = env.txnRead()) {
+                assertThat(map.get("a"), is("1"));
+                assertThat(map.get("a"), is("1"));
+                assertThat(map.get("b"), is(nullValue()));
+                assertThat(map.get("b"), is(nullValue()));
+            }
+            assertThat(map.stats().hits.sum(), is(2L));
+            assertThat(map.stats().misses.sum(), is(2L));
+        }
+    }
+
+    @Test public void
+    uncommitted_writes_are_never_cached() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            CachedLmdbMap<String, String> map = env.cachedMap("test", STRING_CODEC, STRING_CODEC, 10);
+            try (Transaction txn = env.txnWrite()) {
+                map.put("a", "1");
+                txn.commit();
+            }
+
+            try (Transaction txn = env.txnWrite()) {
+                map.put("a", "2");
+                assertThat(map.get("a"), is("2"));
+            }
+
+            try (Transaction txn = env.txnRead()) {
+                assertThat(map.get("a"), is("1"));
+            }
+        }
+    }
+
+    @Test public void
+    commits_invalidate_cached_values() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            CachedLmdbMap<String, String> map = env.cachedMap("test", STRING_CODEC, STRING_CODEC, 10);
+            try (Transaction txn = env.txnWrite()) {
+                map.put("a", "1");
+                map.put("b", "1");
+                txn.commit();
+            }
+            try (Transaction txn = env.txnRead()) {
+                map.get("a");
+                map.get("b");
+            }
+
+            try (Transaction txn = env.txnWrite()) {
+                map.put("a", "2");
+                map.remove("b");
+                txn.commit();
+            }
+
+            try (Transaction txn = env.txnRead()) {
+                assertThat(map.get("a"), is("2"));
+                assertThat(map.get("b"), is(nullValue()));
+            }
+        }
+    }
+
+    @Test public void
+    readers_on_older_snapshots_do_not_see_newer_values_or_fill_the_cache() throws IOException {
+        //MDB_NOTLS so the old and new read txns can both be open on this thread
+        try (LmdbStorageEnvironment env = LmdbStorageEnvironment.builder().noTls().open(tmp.newFolder())) {
+            CachedLmdbMap<String, String> map = env.cachedMap("test", STRING_CODEC, STRING_CODEC, 10);
+            try (Transaction txn = env.txnWrite()) {
+                map.put("a", "1");
+                txn.commit();
+            }
+
+            try (Transaction old = env.explicitTxnRead()) {
+                try (Transaction txn = env.txnWrite()) {
+                    map.put("a", "2");
+                    txn.commit();
+                }
+                try (Transaction txn = env.txnRead()) {
+                    assertThat(map.get("a"), is("2"));
+                }
+
+                assertThat(map.get(old, "a"), is("1"));
+                assertThat(map.get(old, "a"), is("1"));
+            }
+
+            try (Transaction txn = env.txnRead()) {
+                assertThat(map.get("a"), is("2"));
+            }
+        }
+    }
+
+    @Test public void
+    least_recently_used_entries_are_evicted() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            CachedLmdbMap<String, String> map = env.cachedMap("test", STRING_CODEC, STRING_CODEC, 2);
+            try (Transaction txn = env.txnRead()) {
+                map.get("a");
+                map.get("b");
+                map.get("a");
+                map.get("c");
+                map.get("a");
+            }
+
+            assertThat(map.size(), is(2));
+            assertThat(map.stats().evictions.sum(), is(1L));
+            assertThat(map.stats().hits.sum(), is(2L));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.LmdbStorageEnvironment;
+import jheister.lmdbcollections.TestBase;
+import jheister.lmdbcollections.Transaction;
+import org.junit.Test;
+
+import java.util.stream.Stream;
+
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class LmdbIndexTest extends TestBase {
+    @Test public void
+    puts_and_removes_keep_the_index_up_to_date() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<String, String> map = env.map("people", STRING_CODEC, STRING_CODEC);
+            LmdbIndex<String, String, String> byCity = env.index("byCity", map, STRING_CODEC, LmdbIndexTest::city);
+            try (Transaction txn = env.txnWrite()) {
+                map.put("bob", "bob:london");
+                map.put("amy", "amy:paris");
+                map.put("cat", "cat:london");
+                map.put("amy", "amy:london");
+                map.put("bob", "bob:berlin");
+                map.remove("cat");
+                map.remove("nobody");
+
+                assertThat(collect(byCity.findKeysBy("london")), contains("amy"));
+                assertThat(collect(byCity.findBy("berlin")), contains(new Entry<>("bob", "bob:berlin")));
+                assertThat(collect(byCity.findBy("paris")), empty());
+                txn.commit();
+            }
+            try (Transaction txn = env.txnRead()) {
+                assertThat(collect(byCity.findKeysBy("london")), contains("amy"));
+            }
+        }
+    }
+
+    @Test public void
+    writes_through_another_map_on_the_same_db_maintain_the_index() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbIndex<String, String, String> byCity = env.index("byCity", env.map("people", STRING_CODEC, STRING_CODEC), STRING_CODEC, LmdbIndexTest::city);
+            LmdbMap<String, String> other = env.map("people", STRING_CODEC, STRING_CODEC);
+            try (Transaction txn = env.txnWrite()) {
+                other.put("bob", "bob:london");
+                other.put("amy", "amy:london");
+
+                assertThat(collect(byCity.findKeysBy("london")), contains("amy", "bob"));
+
+                other.clear();
+                assertThat(collect(byCity.findKeysBy("london")), empty());
+            }
+        }
+    }
+
+    @Test public void
+    an_index_declared_on_existing_entries_is_built_from_them() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<String, String> map = env.map("people", STRING_CODEC, STRING_CODEC);
+            env.writeAndCommit(txn -> {
+                map.put(txn, "bob", "bob:london");
+                map.put(txn, "amy", "amy:paris");
+                map.put(txn, "nil", "nil");
+            });
+
+            LmdbIndex<String, String, String> byCity = env.index("byCity", map, STRING_CODEC, LmdbIndexTest::city);
+            try (Transaction txn = env.txnRead()) {
+                assertThat(collect(byCity.findKeysBy("london")), contains("bob"));
+                assertThat(collect(byCity.findKeysBy("paris")), contains("amy"));
+            }
+        }
+    }
+
+    @Test public void
+    rebuild_indexes_entries_written_around_the_index() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<String, String> map = env.map("people", STRING_CODEC, STRING_CODEC);
+            LmdbIndex<String, String, String> byCity = env.index("byCity", map, STRING_CODEC, LmdbIndexTest::city);
+            BulkLoader.forMap(env, map).loadSorted(Stream.of(new Entry<>("amy", "amy:rome"), new Entry<>("bob", "bob:rome")));
+
+            try (Transaction txn = env.txnWrite()) {
+                assertThat(collect(byCity.findKeysBy("rome")), empty());
+                byCity.rebuild();
+                assertThat(collect(byCity.findKeysBy("rome")), contains("amy", "bob"));
+            }
+        }
+    }
+
+    //values without a city are not indexed
+    private static String city(String value) {
+        int separator = value.indexOf(':');
+        return separator < 0 ? null : value.substring(separator + 1);
+    }
+}
@@ -3,9 +3,26 @@ package jheister.lmdbcollections.collections;
 import jheister.lmdbcollections.LmdbStorageEnvironment;
 import jheister.lmdbcollections.TestBase;
 import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.codec.Codec;
+import jheister.lmdbcollections.codec.Utf8View;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static jheister.lmdbcollections.codec.Codec.INTEGER_CODEC;
+import static jheister.lmdbcollections.codec.Codec.ORDERED_INTEGER_CODEC;
 import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
@@ -132,4 +149,222 @@ public class LmdbMapTest extends TestBase {
             }
         }
     }
+
+    @Test public void
+    can_get_many_keys_in_input_order() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<Integer, String> map = env.map("test", INTEGER_CODEC, STRING_CODEC);
+
+            try (Transaction txn = env.txnWrite()) {
+                map.put(1, "one");
+                map.put(-5, "minus five");
+                map.put(100, "hundred");
+
+                assertThat(map.getAll(Arrays.asList(100, 7, -5, 1, 100)), contains("hundred", null, "minus five", "one", "hundred"));
+                assertThat(map.getAllAsMap(Arrays.asList(100, 7, -5)).entrySet(), contains(
+                        new SimpleEntry<>(100, "hundred"),
+                        new SimpleEntry<>(-5, "minus five")
+                ));
+                assertThat(map.containsAll(Arrays.asList(1, 100)), is(true));
+                assertThat(map.containsAll(Arrays.asList(1, 2, 100)), is(false));
+                assertThat(map.containsAll(Collections.emptyList()), is(true));
+            }
+        }
+    }
+
+    @Test public void
+    values_can_be_read_through_a_view() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<String, String> map = env.map("test", STRING_CODEC, STRING_CODEC);
+
+            try (Transaction txn = env.txnWrite()) {
+                map.put("key1", "Hello");
+                map.put("key2", "World");
+
+                Utf8View view = new Utf8View();
+                assertThat(map.getView("key1", view).contentEquals("Hello"), is(true));
+                assertThat(map.getView("key3", view), nullValue());
+                assertThat(map.valueViews(view).map(Utf8View::toString).collect(Collectors.toList()), contains("Hello", "World"));
+            }
+        }
+    }
+
+    @Test public void
+    can_stream_keys_values_and_lazy_entries() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<String, String> map = env.map("test", STRING_CODEC, STRING_CODEC);
+
+            try (Transaction txn = env.txnWrite()) {
+                map.put("key1", "Hello");
+                map.put("key2", "World");
+                map.put("other", "!");
+
+                assertThat(map.keys().collect(Collectors.toList()), contains("key1", "key2", "other"));
+                assertThat(map.values().collect(Collectors.toList()), contains("Hello", "World", "!"));
+                assertThat(map.lazyEntries()
+                        .filter(e -> e.key().startsWith("key"))
+                        .map(LazyEntry::value)
+                        .collect(Collectors.toList()), contains("Hello", "World"));
+
+                List<LazyEntry<String, String>> held = map.lazyEntries().collect(Collectors.toList());
+                thrown.expect(IllegalStateException.class);
+                held.get(0).key();
+            }
+        }
+    }
+
+    @Test public void
+    can_query_ranges_of_keys() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<Integer, String> compared = env.map("compared", INTEGER_CODEC, STRING_CODEC);
+            LmdbMap<Integer, String> memcmp = env.map("memcmp", ORDERED_INTEGER_CODEC, STRING_CODEC);
+
+            try (Transaction txn = env.txnWrite()) {
+                for (LmdbMap<Integer, String> map : Arrays.asList(compared, memcmp)) {
+                    for (int key : new int[]{-20, -10, 0, 10, 20}) {
+                        map.put(key, "v" + key);
+                    }
+
+                    assertThat(keys(map.range(-10, 20)), contains(-10, 0, 10));
+                    assertThat(keys(map.range(-15, 15)), contains(-10, 0, 10));
+                    assertThat(keys(map.headEntries(0)), contains(-20, -10));
+                    assertThat(keys(map.tailEntries(5)), contains(10, 20));
+                    assertThat(keys(map.descendingEntries()), contains(20, 10, 0, -10, -20));
+                    assertThat(map.firstKey(), is(-20));
+                    assertThat(map.lastKey(), is(20));
+                    assertThat(map.ceilingKey(-5), is(0));
+                    assertThat(map.ceilingKey(10), is(10));
+                    assertThat(map.ceilingKey(21), nullValue());
+                    assertThat(map.floorKey(-5), is(-10));
+                    assertThat(map.floorKey(10), is(10));
+                    assertThat(map.floorKey(100), is(20));
+                    assertThat(map.floorKey(-21), nullValue());
+                }
+            }
+        }
+    }
+
+    @Test public void
+    can_scan_keys_with_a_prefix() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<String, String> map = env.map("test", STRING_CODEC, STRING_CODEC);
+
+            try (Transaction txn = env.txnWrite()) {
+                map.put("ab", "1");
+                map.put("abc", "2");
+                map.put("abd", "3");
+                map.put("ac", "4");
+                map.put("b", "5");
+
+                assertThat(keys(map.prefixEntries("ab")), contains("ab", "abc", "abd"));
+                assertThat(keys(map.prefixEntries("b")), contains("b"));
+                assertThat(keys(map.prefixEntries("c")).isEmpty(), is(true));
+                assertThat(map.firstKey(), is("ab"));
+            }
+        }
+    }
+
+    @Test public void
+    values_of_a_known_size_are_written_into_reserved_space_and_may_exceed_the_value_buffer() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<Integer, String> map = env.map("test", INTEGER_CODEC, STRING_CODEC);
+            String large = String.join("", Collections.nCopies(100_000, "\u00e9"));
+            String mixed = "a\u00e9\u20ac\ud83d\ude00\ud800";
+
+            try (Transaction txn = env.txnWrite()) {
+                map.put(1, large);
+                map.put(2, mixed);
+
+                assertThat(map.get(1), is(large));
+                assertThat(map.get(2), is(new String(mixed.getBytes(UTF_8), UTF_8)));
+                assertThat(STRING_CODEC.encodedSize(mixed), is(mixed.getBytes(UTF_8).length));
+            }
+        }
+    }
+
+    @Test public void
+    a_codec_writing_other_than_its_reported_size_fails_the_put() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<Integer, String> map = env.map("test", INTEGER_CODEC, new Codec<String>() {
+                @Override
+                public String deserialize(ByteBuffer buffer) {
+                    return STRING_CODEC.deserialize(buffer);
+                }
+
+                @Override
+                public void serialize(String value, ByteBuffer target) {
+                    STRING_CODEC.serialize(value, target);
+                }
+
+                @Override
+                public int encodedSize(String value) {
+                    return value.length() + 1;
+                }
+            });
+
+            try (Transaction txn = env.txnWrite()) {
+                thrown.expect(IllegalStateException.class);
+                map.put(1, "abc");
+            }
+        }
+    }
+
+    @Test public void
+    values_of_unknown_size_grow_the_value_buffer() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            //escaping makes the reversed codec's size unknown up front
+            LmdbMap<Integer, String> map = env.map("test", INTEGER_CODEC, STRING_CODEC.reverseOrder());
+            String large = String.join("", Collections.nCopies(3_000_000, "x"));
+
+            try (Transaction txn = env.txnWrite()) {
+                map.put(1, large);
+                map.put(2, "small");
+
+                assertThat(map.get(1), is(large));
+                assertThat(map.get(2), is("small"));
+            }
+        }
+    }
+
+    @Test public void
+    large_values_can_be_streamed_in_and_read_from_the_page() throws IOException {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<Integer, String> map = env.map("test", INTEGER_CODEC, STRING_CODEC);
+            byte[] blob = new byte[5 * 1024 * 1024];
+            new Random(1).nextBytes(blob);
+
+            try (Transaction txn = env.txnWrite()) {
+                map.put(1, Channels.newChannel(new ByteArrayInputStream(blob)), blob.length);
+                map.put(2, "small");
+                txn.commit();
+            }
+
+            try (Transaction txn = env.txnRead()) {
+                ByteBuffer value = map.getBuffer(1);
+                assertThat(map.getBuffer(2).remaining(), is(5));
+                assertThat(map.getBuffer(3), nullValue());
+
+                assertThat(value.isReadOnly(), is(true));
+                byte[] read = new byte[value.remaining()];
+                value.get(read);
+                assertThat(Arrays.equals(read, blob), is(true));
+            }
+        }
+    }
+
+    @Test public void
+    a_channel_ending_early_fails_the_put() throws IOException {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<Integer, String> map = env.map("test", INTEGER_CODEC, STRING_CODEC);
+
+            try (Transaction txn = env.txnWrite()) {
+                thrown.expect(EOFException.class);
+                map.put(1, Channels.newChannel(new ByteArrayInputStream(new byte[10])), 11);
+            }
+        }
+    }
+
+    private static <K> List<K> keys(Stream<Entry<K, String>> entries) {
+        return collect(entries.map(e -> e.key));
+    }
 }
\ No newline at end of file
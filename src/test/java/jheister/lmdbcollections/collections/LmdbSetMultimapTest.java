@@ -6,6 +6,7 @@ import jheister.lmdbcollections.Transaction;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -14,6 +15,7 @@ import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.is;
 
 public class LmdbSetMultimapTest extends TestBase {
     @Test public void
@@ -95,6 +97,77 @@ public class LmdbSetMultimapTest extends TestBase {
         }
     }
 
+    @Test public void
+    counts_values_of_a_key() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbSetMultimap<String, String> map = env.sortedSetMultimap("test", STRING_CODEC, STRING_CODEC);
+
+            try (Transaction txn = env.txnWrite()) {
+                map.putAll("k1", Arrays.asList("Hello", "World", "Hello"));
+                map.put("k2", "Hi");
+
+                assertThat(map.count("k1"), is(2L));
+                assertThat(map.count("k2"), is(1L));
+                assertThat(map.count("absent"), is(0L));
+            }
+        }
+    }
+
+    @Test public void
+    contains_only_stored_entries() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbSetMultimap<String, String> map = env.sortedSetMultimap("test", STRING_CODEC, STRING_CODEC);
+
+            try (Transaction txn = env.txnWrite()) {
+                map.putAll("k1", Arrays.asList("b", "d", "f"));
+                map.put("k2", "a");
+
+                assertThat(map.containsEntry("k1", "d"), is(true));
+                assertThat(map.containsEntry("k1", "f"), is(true));
+                assertThat(map.containsEntry("k1", "a"), is(false));
+                assertThat(map.containsEntry("k1", "c"), is(false));
+                assertThat(map.containsEntry("k1", "g"), is(false));
+                assertThat(map.containsEntry("absent", "a"), is(false));
+                assertThat(collect(map.get("k1")), contains("b", "d", "f"));
+            }
+        }
+    }
+
+    @Test public void
+    removes_all_values_of_a_key() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbSetMultimap<String, String> map = env.sortedSetMultimap("test", STRING_CODEC, STRING_CODEC);
+
+            try (Transaction txn = env.txnWrite()) {
+                map.putAll("k1", Arrays.asList("Hello", "World"));
+                map.put("k2", "Hi");
+
+                assertThat(map.removeAll("k1"), is(true));
+                assertThat(map.removeAll("k1"), is(false));
+
+                assertThat(collect(map.get("k1")), emptyIterable());
+                assertThat(collect(map.get("k2")), contains("Hi"));
+            }
+        }
+    }
+
+    @Test public void
+    lists_each_key_once() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbSetMultimap<String, String> map = env.sortedSetMultimap("test", STRING_CODEC, STRING_CODEC);
+
+            try (Transaction txn = env.txnWrite()) {
+                assertThat(collect(map.keys()), emptyIterable());
+
+                map.putAll("k2", Arrays.asList("a", "b", "c"));
+                map.put("k1", "a");
+                map.putAll("k3", Arrays.asList("a", "b"));
+
+                assertThat(collect(map.keys()), contains("k1", "k2", "k3"));
+            }
+        }
+    }
+
     @Ignore
     @Test public void
     values_are_sorted_by_comparator() {
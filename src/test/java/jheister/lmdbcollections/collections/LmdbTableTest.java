@@ -3,14 +3,17 @@ package jheister.lmdbcollections.collections;
 import jheister.lmdbcollections.LmdbStorageEnvironment;
 import jheister.lmdbcollections.TestBase;
 import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.collections.LmdbTable.KeyLayout;
 import jheister.lmdbcollections.collections.LmdbTable.TableEntry;
 import org.junit.Test;
 
 import java.nio.BufferOverflowException;
+import java.util.Arrays;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static jheister.lmdbcollections.codec.Codec.INTEGER_CODEC;
+import static jheister.lmdbcollections.codec.Codec.ORDERED_INTEGER_CODEC;
 import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
@@ -385,5 +388,152 @@ public class LmdbTableTest extends TestBase {
         }
     }
 
+    @Test public void
+    terminated_key_layout_orders_by_row_then_column_without_a_comparator() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbTable<String, Integer, String> table = env.table("test", STRING_CODEC, ORDERED_INTEGER_CODEC, STRING_CODEC, KeyLayout.TERMINATED);
+
+            try (Transaction txn = env.txnWrite()) {
+                table.put("AA", 1, "4");
+                table.put("A", -2, "1");
+                table.put("B", 0, "6");
+                table.put("A", 3, "3");
+                table.put("A", 0, "2");
+                table.put("A\u0000", 7, "5");
+
+                assertThat(collect(table.entries()), contains(
+                        new TableEntry<>("A", -2, "1"),
+                        new TableEntry<>("A", 0, "2"),
+                        new TableEntry<>("A", 3, "3"),
+                        new TableEntry<>("A\u0000", 7, "5"),
+                        new TableEntry<>("AA", 1, "4"),
+                        new TableEntry<>("B", 0, "6")
+                ));
+                assertThat(collect(table.rowEntries("A")), contains(
+                        new TableEntry<>("A", -2, "1"),
+                        new TableEntry<>("A", 0, "2"),
+                        new TableEntry<>("A", 3, "3")
+                ));
+                assertThat(collect(table.rowEntries("A\u0000")), contains(
+                        new TableEntry<>("A\u0000", 7, "5")
+                ));
+                assertThat(table.get("A", 3), is("3"));
+                assertThat(table.containsRow("C"), is(false));
+            }
+        }
+    }
+
+    @Test public void
+    terminated_key_layout_rejects_codecs_with_comparators() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            thrown.expect(IllegalArgumentException.class);
+            env.table("test", INTEGER_CODEC, STRING_CODEC, STRING_CODEC, KeyLayout.TERMINATED);
+        }
+    }
+
+    @Test public void
+    can_get_many_columns_of_a_row() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbTable<String, Integer, String> table = env.table("test", STRING_CODEC, INTEGER_CODEC, STRING_CODEC);
+
+            try (Transaction txn = env.txnWrite()) {
+                table.put("A", 3, "A3");
+                table.put("A", -1, "A-1");
+                table.put("B", 2, "B2");
+
+                assertThat(table.getAll("A", Arrays.asList(3, 2, -1)), contains("A3", null, "A-1"));
+                assertThat(table.getAllAsMap("B", Arrays.asList(3, 2)).keySet(), contains(2));
+            }
+        }
+    }
+
+    @Test public void
+    can_stream_column_keys_and_lazy_entries_of_a_row() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            for (KeyLayout layout : KeyLayout.values()) {
+                LmdbTable<String, Integer, String> table = env.table("test" + layout, STRING_CODEC, ORDERED_INTEGER_CODEC, STRING_CODEC, layout);
+
+                try (Transaction txn = env.txnWrite()) {
+                    table.put("A", 3, "A3");
+                    table.put("A", -1, "A-1");
+                    table.put("B", 2, "B2");
+
+                    assertThat(collect(table.columnKeys("A")), contains(-1, 3));
+                    assertThat(collect(table.lazyRowEntries("A").filter(e -> e.colKey() > 0).map(LazyTableEntry::value)), contains("A3"));
+                    assertThat(collect(table.lazyEntries().map(e -> e.value() + e.rowKey() + e.colKey())), contains("A-1A-1", "A3A3", "B2B2"));
+                    assertThat(table.containsRow("B"), is(true));
+                    assertThat(table.containsRow("C"), is(false));
+                }
+            }
+        }
+    }
+
+    @Test public void
+    can_query_column_ranges_of_a_row() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbTable<String, Integer, String> compared = env.table("compared", STRING_CODEC, INTEGER_CODEC, STRING_CODEC);
+            LmdbTable<String, Integer, String> terminated = env.table("terminated", STRING_CODEC, ORDERED_INTEGER_CODEC, STRING_CODEC, KeyLayout.TERMINATED);
+            LmdbTable<String, String, String> prefixed = env.table("prefixed", STRING_CODEC, STRING_CODEC, STRING_CODEC);
+
+            try (Transaction txn = env.txnWrite()) {
+                for (LmdbTable<String, Integer, String> table : Arrays.asList(compared, terminated)) {
+                    for (String row : new String[]{"A", "AB", "B"}) {
+                        for (int col = -2; col <= 2; col++) {
+                            table.put(row, col, row + col);
+                        }
+                    }
+
+                    assertThat(collect(table.rowRange("AB", -1, 2).map(e -> e.value)), contains("AB-1", "AB0", "AB1"));
+                }
+                assertThat(collect(terminated.descendingRowEntries("A").map(e -> e.value)), contains("A2", "A1", "A0", "A-1", "A-2"));
+                assertThat(collect(terminated.descendingRowEntries("B").map(e -> e.value)), contains("B2", "B1", "B0", "B-1", "B-2"));
+
+                prefixed.put("A", "x", "Ax");
+                prefixed.put("A", "y", "Ay");
+                prefixed.put("B", "a", "Ba");
+                assertThat(collect(prefixed.descendingRowEntries("A").map(e -> e.value)), contains("Ay", "Ax"));
+
+                thrown.expect(UnsupportedOperationException.class);
+                compared.descendingRowEntries("A");
+            }
+        }
+    }
+
+    @Test public void
+    can_navigate_row_keys() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbTable<String, Integer, String> compared = env.table("compared", STRING_CODEC, INTEGER_CODEC, STRING_CODEC);
+            LmdbTable<String, Integer, String> terminated = env.table("terminated", STRING_CODEC, ORDERED_INTEGER_CODEC, STRING_CODEC, KeyLayout.TERMINATED);
+
+            try (Transaction txn = env.txnWrite()) {
+                for (LmdbTable<String, Integer, String> table : Arrays.asList(compared, terminated)) {
+                    assertThat(table.firstRowKey(), is(nullValue()));
+                    assertThat(table.floorRowKey("A"), is(nullValue()));
+
+                    for (String row : new String[]{"B", "BC", "D"}) {
+                        table.put(row, 2, row + 2);
+                        table.put(row, -1, row + -1);
+                    }
+
+                    assertThat(collect(table.rowsRange("BC", "D").map(e -> e.value)), contains("BC-1", "BC2"));
+                    assertThat(collect(table.rowsRange("A", "BB").map(e -> e.value)), contains("B-1", "B2"));
+                    assertThat(collect(table.headRowEntries("BC").map(e -> e.value)), contains("B-1", "B2"));
+                    assertThat(collect(table.tailRowEntries("C").map(e -> e.value)), contains("D-1", "D2"));
+                    assertThat(collect(table.descendingEntries().map(e -> e.value)), contains("D2", "D-1", "BC2", "BC-1", "B2", "B-1"));
+
+                    assertThat(table.firstRowKey(), is("B"));
+                    assertThat(table.lastRowKey(), is("D"));
+                    assertThat(table.ceilingRowKey("BC"), is("BC"));
+                    assertThat(table.ceilingRowKey("BB"), is("BC"));
+                    assertThat(table.ceilingRowKey("E"), is(nullValue()));
+                    assertThat(table.floorRowKey("BC"), is("BC"));
+                    assertThat(table.floorRowKey("C"), is("BC"));
+                    assertThat(table.floorRowKey("E"), is("D"));
+                    assertThat(table.floorRowKey("A"), is(nullValue()));
+                }
+            }
+        }
+    }
+
     //todo: test what happens with empty colKey and comparator now
 }
\ No newline at end of file
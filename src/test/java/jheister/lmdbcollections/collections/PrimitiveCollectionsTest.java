@@ -0,0 +1,103 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.LmdbStorageEnvironment;
+import jheister.lmdbcollections.TestBase;
+import jheister.lmdbcollections.Transaction;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class PrimitiveCollectionsTest extends TestBase {
+    @Test public void
+    long_map_stores_values_by_key() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbLongMap map = env.longMap("test");
+
+            try (Transaction txn = env.txnWrite()) {
+                map.put(300, 1);
+                map.put(2, Long.MIN_VALUE);
+                map.put(-1, 5);
+                map.put(2, 7);
+
+                assertThat(map.get(2), is(7L));
+                assertThat(map.getOrDefault(3, -9), is(-9L));
+                assertThat(map.containsKey(-1), is(true));
+
+                List<String> entries = new ArrayList<>();
+                map.forEach((k, v) -> entries.add(k + "=" + v));
+                assertThat(entries, contains("2=7", "300=1", "-1=5"));
+
+                map.remove(300);
+                thrown.expect(NoSuchElementException.class);
+                map.get(300);
+            }
+        }
+    }
+
+    @Test public void
+    int_map_stores_values_by_key() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbIntMap map = env.intMap("test");
+
+            try (Transaction txn = env.txnWrite()) {
+                map.put(1 << 20, 1);
+                map.put(7, -3);
+
+                assertThat(map.get(7), is(-3));
+                assertThat(map.getOrDefault(8, 0), is(0));
+
+                List<Integer> keys = new ArrayList<>();
+                map.forEach((k, v) -> keys.add(k));
+                assertThat(keys, contains(7, 1 << 20));
+            }
+        }
+    }
+
+    @Test public void
+    long_set_iterates_in_unsigned_order() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbLongSet set = env.longSet("test");
+
+            try (Transaction txn = env.txnWrite()) {
+                set.add(256);
+                set.add(-1);
+                set.add(1);
+                set.add(256);
+
+                assertThat(set.contains(1), is(true));
+                assertThat(set.contains(2), is(false));
+
+                List<Long> values = new ArrayList<>();
+                set.forEach(values::add);
+                assertThat(values, contains(1L, 256L, -1L));
+            }
+        }
+    }
+
+    @Test public void
+    long_multimap_keeps_sorted_values_per_key() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbLongSetMultimap multimap = env.longSetMultimap("test");
+
+            try (Transaction txn = env.txnWrite()) {
+                multimap.put(1, 512);
+                multimap.put(1, 3);
+                multimap.put(1, 3);
+                multimap.put(2, 9);
+                multimap.put(0, 4);
+                multimap.remove(2, 9);
+
+                assertThat(multimap.get(1).boxed().collect(Collectors.toList()), contains(3L, 512L));
+                assertThat(multimap.get(2).count(), is(0L));
+                assertThat(multimap.get(0).boxed().collect(Collectors.toList()), contains(4L));
+            }
+        }
+    }
+}
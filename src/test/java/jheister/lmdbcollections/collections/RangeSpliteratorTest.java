@@ -0,0 +1,141 @@
+package jheister.lmdbcollections.collections;
+
+import jheister.lmdbcollections.LmdbStorageEnvironment;
+import jheister.lmdbcollections.TestBase;
+import jheister.lmdbcollections.Transaction;
+import jheister.lmdbcollections.collections.LmdbTable.KeyLayout;
+import jheister.lmdbcollections.collections.LmdbTable.TableEntry;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+
+import static jheister.lmdbcollections.codec.Codec.INTEGER_CODEC;
+import static jheister.lmdbcollections.codec.Codec.ORDERED_INTEGER_CODEC;
+import static jheister.lmdbcollections.codec.Codec.STRING_CODEC;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+public class RangeSpliteratorTest extends TestBase {
+    @Test public void
+    parallel_map_scan_sees_every_entry_once_in_order() throws IOException {
+        try (LmdbStorageEnvironment env = noTlsEnv()) {
+            LmdbMap<String, Integer> memcmp = env.map("memcmp", STRING_CODEC, INTEGER_CODEC);
+            LmdbMap<Integer, Integer> compared = env.map("compared", INTEGER_CODEC, INTEGER_CODEC);
+
+            try (Transaction txn = env.txnWrite()) {
+                for (int i = -5000; i < 5000; i++) {
+                    memcmp.put("key" + i, i);
+                    compared.put(i, i);
+                }
+                txn.commit();
+            }
+
+            try (Transaction txn = env.txnRead()) {
+                assertThat(collect(memcmp.parallelEntries()), is(collect(memcmp.entries())));
+                assertThat(collect(compared.parallelEntries()), is(collect(compared.entries())));
+                assertThat(memcmp.parallelEntries().mapToLong(e -> e.value).sum(), is(-5000L));
+            }
+        }
+    }
+
+    @Test public void
+    parallel_table_scan_sees_every_entry_once_in_order() throws IOException {
+        try (LmdbStorageEnvironment env = noTlsEnv()) {
+            for (KeyLayout layout : KeyLayout.values()) {
+                LmdbTable<String, Integer, Integer> table = env.table("test" + layout, STRING_CODEC, ORDERED_INTEGER_CODEC, ORDERED_INTEGER_CODEC, layout);
+
+                try (Transaction txn = env.txnWrite()) {
+                    for (int row = 0; row < 100; row++) {
+                        for (int col = -50; col < 50; col++) {
+                            table.put("row" + row, col, row * col);
+                        }
+                    }
+                    txn.commit();
+                }
+
+                try (Transaction txn = env.txnRead()) {
+                    List<TableEntry<String, Integer, Integer>> parallel = collect(table.parallelEntries());
+                    assertThat(parallel, is(collect(table.entries())));
+                }
+            }
+        }
+    }
+
+    @Test public void
+    splits_the_key_range_and_closes_abandoned_cursors() throws IOException {
+        try (LmdbStorageEnvironment env = noTlsEnv()) {
+            LmdbMap<String, Integer> map = env.map("test", STRING_CODEC, INTEGER_CODEC);
+
+            try (Transaction txn = env.txnWrite()) {
+                for (int i = 0; i < 10000; i++) {
+                    map.put(String.format("%05d", i), i);
+                }
+                txn.commit();
+            }
+
+            try (Transaction txn = env.txnRead()) {
+                RangeSpliterator<Entry<String, Integer>> spliterator = RangeSpliterator.over(map.db(), txn.lmdbTxn(), null,
+                        cursor -> new Entry<>(STRING_CODEC.deserialize(cursor.key()), 0));
+                Spliterator<Entry<String, Integer>> prefix = spliterator.trySplit();
+                assertThat(prefix, notNullValue());
+                assertThat(prefix.estimateSize() + spliterator.estimateSize(), is(10000L));
+                prefix.tryAdvance(e -> assertThat(e.key, is("00000")));
+                RangeSpliterator.closeCursors(spliterator);
+
+                try (Stream<Entry<String, Integer>> entries = map.parallelEntries()) {
+                    assertThat(entries.filter(e -> e.value == 4321).findAny().get().key, is("04321"));
+                }
+                try (Stream<Entry<String, Integer>> entries = map.parallelEntries()) {
+                    assertThat(entries.spliterator().trySplit(), notNullValue());
+                }
+            }
+        }
+    }
+
+    @Test public void
+    write_transactions_are_refused() throws IOException {
+        try (LmdbStorageEnvironment env = noTlsEnv()) {
+            LmdbTable<String, String, Integer> table = env.table("test", STRING_CODEC, STRING_CODEC, INTEGER_CODEC);
+
+            try (Transaction txn = env.txnWrite()) {
+                table.put("a", "b", 1);
+
+                thrown.expect(IllegalArgumentException.class);
+                table.parallelEntries();
+            }
+        }
+    }
+
+    @Test public void
+    thread_bound_read_transactions_are_refused() {
+        try (LmdbStorageEnvironment env = createEnv()) {
+            LmdbMap<String, Integer> map = env.map("test", STRING_CODEC, INTEGER_CODEC);
+
+            try (Transaction txn = env.txnRead()) {
+                thrown.expect(IllegalStateException.class);
+                map.parallelEntries();
+            }
+        }
+    }
+
+    @Test public void
+    midpoint_lies_between_keys() {
+        assertThat(RangeSpliterator.midpoint(new byte[]{0}, new byte[]{(byte) 0xFF})[0], is((byte) 0x7F));
+        byte[] mid = RangeSpliterator.midpoint(new byte[]{'a'}, new byte[]{'b'});
+        assertThat(mid[0], is((byte) 'a'));
+        assertThat(mid[1], is((byte) 0x80));
+        assertThat(RangeSpliterator.midpoint(new byte[]{(byte) 0xFF}, new byte[]{(byte) 0xFF})[0], is((byte) 0xFF));
+    }
+
+    private LmdbStorageEnvironment noTlsEnv() throws IOException {
+        return LmdbStorageEnvironment.builder()
+                .setMaxCollections(3)
+                .setMaxTotalSize(1024 * 1024 * 20)
+                .noTls()
+                .open(tmp.newFolder());
+    }
+}